@@ -1,7 +1,11 @@
 package com.daniellaera.backend.config;
 
+import com.daniellaera.backend.properties.BookSimilarityProperties;
+import com.daniellaera.backend.properties.BookTrendingProperties;
 import com.daniellaera.backend.properties.QuartzSchedulerProperties;
+import com.daniellaera.backend.scheduler.BookSimilarityJob;
 import com.daniellaera.backend.scheduler.BookStatusUpdateJob;
+import com.daniellaera.backend.scheduler.BookTrendingSnapshotJob;
 import org.quartz.*;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,9 +14,15 @@ import org.springframework.context.annotation.Configuration;
 public class QuartzConfig {
 
     private final QuartzSchedulerProperties quartzSchedulerProperties;
+    private final BookSimilarityProperties bookSimilarityProperties;
+    private final BookTrendingProperties bookTrendingProperties;
 
-    public QuartzConfig(QuartzSchedulerProperties quartzSchedulerProperties) {
+    public QuartzConfig(QuartzSchedulerProperties quartzSchedulerProperties,
+                        BookSimilarityProperties bookSimilarityProperties,
+                        BookTrendingProperties bookTrendingProperties) {
         this.quartzSchedulerProperties = quartzSchedulerProperties;
+        this.bookSimilarityProperties = bookSimilarityProperties;
+        this.bookTrendingProperties = bookTrendingProperties;
     }
 
     @Bean
@@ -31,4 +41,48 @@ public class QuartzConfig {
                 .withSchedule(CronScheduleBuilder.cronSchedule(quartzSchedulerProperties.getCron()))
                 .build();
     }
+
+    @Bean
+    public JobDetail bookSimilarityJobDetail() {
+        return JobBuilder.newJob(BookSimilarityJob.class)
+                .withIdentity("bookSimilarityJobDetail")
+                .storeDurably()
+                .build();
+    }
+
+    @Bean
+    public Trigger bookSimilarityTrigger() {
+        return TriggerBuilder.newTrigger()
+                .forJob(bookSimilarityJobDetail())
+                .withIdentity("bookSimilarityTrigger")
+                .withSchedule(CronScheduleBuilder.cronSchedule(bookSimilarityProperties.getCron()))
+                .build();
+    }
+
+    // One build as soon as the scheduler starts, so /similar does not stay empty until the first cron run
+    @Bean
+    public Trigger bookSimilarityStartupTrigger() {
+        return TriggerBuilder.newTrigger()
+                .forJob(bookSimilarityJobDetail())
+                .withIdentity("bookSimilarityStartupTrigger")
+                .startNow()
+                .build();
+    }
+
+    @Bean
+    public JobDetail bookTrendingSnapshotJobDetail() {
+        return JobBuilder.newJob(BookTrendingSnapshotJob.class)
+                .withIdentity("bookTrendingSnapshotJobDetail")
+                .storeDurably()
+                .build();
+    }
+
+    @Bean
+    public Trigger bookTrendingSnapshotTrigger() {
+        return TriggerBuilder.newTrigger()
+                .forJob(bookTrendingSnapshotJobDetail())
+                .withIdentity("bookTrendingSnapshotTrigger")
+                .withSchedule(CronScheduleBuilder.cronSchedule(bookTrendingProperties.getSnapshotCron()))
+                .build();
+    }
 }
@@ -0,0 +1,92 @@
+package com.daniellaera.backend.config;
+
+import com.daniellaera.backend.properties.ReplicaDataSourceProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.boot.transaction.autoconfigure.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import javax.sql.DataSource;
+
+/**
+ * Replaces the auto-configured DataSource by a primary/replica pair when datasource.replica.url
+ * is set. Without it the single spring.datasource pool is used as before.
+ */
+@Configuration
+@ConditionalOnExpression("!'${datasource.replica.url:}'.isBlank()")
+public class ReadReplicaConfig {
+
+    // Declared as DataSource so that post-processors may wrap the pools (see VirtualThreadConfig)
+    @Bean(autowireCandidate = false)
+    public DataSource primaryDataSource(DataSourceProperties dataSourceProperties, Environment environment) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean(autowireCandidate = false)
+    public DataSource replicaDataSource(DataSourceProperties dataSourceProperties, ReplicaDataSourceProperties replicaProperties) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(dataSourceProperties.determineDriverClassName())
+                .url(replicaProperties.getUrl())
+                .username(replicaProperties.getUsername() != null ? replicaProperties.getUsername() : dataSourceProperties.determineUsername())
+                .password(replicaProperties.getPassword() != null ? replicaProperties.getPassword() : dataSourceProperties.determinePassword())
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        dataSource.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+        return dataSource;
+    }
+
+    @Bean(autowireCandidate = false)
+    public ReadReplicaRoutingDataSource routingDataSource(DataSourceProperties dataSourceProperties,
+                                                          ReplicaDataSourceProperties replicaProperties,
+                                                          Environment environment) {
+        return new ReadReplicaRoutingDataSource(
+                primaryDataSource(dataSourceProperties, environment),
+                replicaDataSource(dataSourceProperties, replicaProperties),
+                replicaProperties.getStickyWindow());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, ReplicaDataSourceProperties replicaProperties,
+                                 Environment environment) {
+        return new LazyConnectionDataSourceProxy(routingDataSource(dataSourceProperties, replicaProperties, environment));
+    }
+
+    // Replaces the auto-configured JpaTransactionManager, see ReadReplicaJpaTransactionManager
+    @Bean
+    public JpaTransactionManager transactionManager(DataSourceProperties dataSourceProperties,
+                                                    ReplicaDataSourceProperties replicaProperties,
+                                                    Environment environment,
+                                                    ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        JpaTransactionManager transactionManager = new ReadReplicaJpaTransactionManager(
+                routingDataSource(dataSourceProperties, replicaProperties, environment));
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+
+    // Hibernate would otherwise hold the first connection for the whole open-in-view session,
+    // so a request reading from the replica would also write there
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandlingCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
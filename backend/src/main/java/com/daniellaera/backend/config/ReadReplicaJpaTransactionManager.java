@@ -0,0 +1,82 @@
+package com.daniellaera.backend.config;
+
+import com.daniellaera.backend.config.ReadReplicaRoutingDataSource.Route;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+import java.sql.SQLException;
+
+/**
+ * JpaTransactionManager for the primary/replica setup. Each transaction's route is decided here, as
+ * it begins, and bound for the routing data source to read. A read-only transaction that reads
+ * from the replica runs with {@link CacheMode#GET}: it uses the second-level and query caches but
+ * never fills them. Rows read from a lagging replica would otherwise be cached for everyone for
+ * up to the region's expiry, including the writer inside its sticky window.
+ */
+public class ReadReplicaJpaTransactionManager extends JpaTransactionManager {
+
+    private final ReadReplicaRoutingDataSource routingDataSource;
+
+    public ReadReplicaJpaTransactionManager(ReadReplicaRoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    // The superclass takes the dialect of the EntityManagerFactory here, so it is replaced afterwards
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        setJpaDialect(new ReplicaCacheModeJpaDialect(routingDataSource));
+    }
+
+    static class ReplicaCacheModeJpaDialect extends HibernateJpaDialect {
+
+        private final ReadReplicaRoutingDataSource routingDataSource;
+
+        ReplicaCacheModeJpaDialect(ReadReplicaRoutingDataSource routingDataSource) {
+            this.routingDataSource = routingDataSource;
+        }
+
+        // The route is bound before the superclass may touch the connection, and the cache mode follows it
+        @Override
+        public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+                throws PersistenceException, SQLException, TransactionException {
+            Route previousRoute = routingDataSource.currentRoute();
+            Route route = routingDataSource.bindRoute(definition.isReadOnly());
+            Object transactionData;
+            try {
+                transactionData = super.beginTransaction(entityManager, definition);
+            } catch (RuntimeException | SQLException e) {
+                routingDataSource.restoreRoute(previousRoute);
+                throw e;
+            }
+            Session session = entityManager.unwrap(Session.class);
+            CacheMode previousCacheMode = session.getCacheMode();
+            if (route == Route.REPLICA) {
+                session.setCacheMode(CacheMode.GET);
+            }
+            return new ReplicaTransactionData(transactionData, session, previousCacheMode, previousRoute);
+        }
+
+        @Override
+        public void cleanupTransaction(Object transactionData) {
+            if (transactionData instanceof ReplicaTransactionData replicaTransactionData) {
+                // the session may outlive the transaction (open-in-view), give it its cache mode back
+                replicaTransactionData.session().setCacheMode(replicaTransactionData.previousCacheMode());
+                routingDataSource.restoreRoute(replicaTransactionData.previousRoute());
+                super.cleanupTransaction(replicaTransactionData.transactionData());
+            } else {
+                super.cleanupTransaction(transactionData);
+            }
+        }
+    }
+
+    private record ReplicaTransactionData(Object transactionData, Session session, CacheMode previousCacheMode,
+                                          Route previousRoute) {
+    }
+}
@@ -0,0 +1,226 @@
+package com.daniellaera.backend.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary. A signed-in
+ * client whose transaction changed data keeps reading from the primary for the sticky window, so it
+ * sees its own changes even while the replica lags behind. Anonymous callers are never pinned: they
+ * share no identity, and one login would otherwise move every anonymous reader to the primary.
+ * <p>
+ * The route is decided once, when the transaction begins (see {@link ReadReplicaJpaTransactionManager}),
+ * and bound to it as a transaction resource; the connection acquired later follows that decision even
+ * if the sticky window has ended in between. Must be wrapped in a LazyConnectionDataSourceProxy, so
+ * the connection is only acquired once the route is bound.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private static final int PRUNE_THRESHOLD = 10_000;
+    // Leading keyword of a statement that changes rows, RETURNING variants included
+    private static final Pattern DATA_CHANGE = Pattern.compile("^\\s*(INSERT|UPDATE|DELETE|MERGE)\\b");
+
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    // Resource key of the route bound to the current transaction
+    private final Object routeKey = new Object();
+    private final long stickyWindowNanos;
+    private final LongSupplier nanoClock;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration stickyWindow) {
+        this(primary, replica, stickyWindow, System::nanoTime);
+    }
+
+    ReadReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration stickyWindow, LongSupplier nanoClock) {
+        this.stickyWindowNanos = stickyWindow.toNanos();
+        this.nanoClock = nanoClock;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && currentRoute() == Route.REPLICA
+                ? Route.REPLICA
+                : Route.PRIMARY;
+    }
+
+    // The route bound to the current transaction, null outside of one
+    Route currentRoute() {
+        return (Route) TransactionSynchronizationManager.getResource(routeKey);
+    }
+
+    /**
+     * Decides the route of the transaction now beginning and binds it in place of the route of a
+     * suspended outer transaction, which {@link #restoreRoute} puts back once this one ends.
+     */
+    Route bindRoute(boolean readOnly) {
+        Route route = readOnly && readsFromReplica() ? Route.REPLICA : Route.PRIMARY;
+        TransactionSynchronizationManager.unbindResourceIfPossible(routeKey);
+        TransactionSynchronizationManager.bindResource(routeKey, route);
+        return route;
+    }
+
+    void restoreRoute(Route previous) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(routeKey);
+        if (previous != null) {
+            TransactionSynchronizationManager.bindResource(routeKey, previous);
+        }
+    }
+
+    // Whether the current client is outside the sticky window of its last write
+    private boolean readsFromReplica() {
+        String client = currentClient();
+        Long lastWrite = client != null ? lastWrites.get(client) : null;
+        return lastWrite == null || nanoClock.getAsLong() - lastWrite >= stickyWindowNanos;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return trackWrites(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return trackWrites(super.getConnection(username, password));
+    }
+
+    /**
+     * In a read-write transaction of a signed-in client, wraps the connection so that the client
+     * is pinned to the primary after commit only if a statement actually changed rows.
+     */
+    private Connection trackWrites(Connection connection) {
+        String client = currentClient();
+        if (client == null
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return connection;
+        }
+        WriteTracker tracker = new WriteTracker();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (tracker.changedData) {
+                    recordWrite(client);
+                }
+            }
+        });
+        return tracker.wrap(connection);
+    }
+
+    private void recordWrite(String client) {
+        long now = nanoClock.getAsLong();
+        lastWrites.put(client, now);
+        if (lastWrites.size() > PRUNE_THRESHOLD) {
+            lastWrites.values().removeIf(lastWrite -> now - lastWrite >= stickyWindowNanos);
+        }
+    }
+
+    // null for anonymous callers
+    private static String currentClient() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || authentication instanceof AnonymousAuthenticationToken
+                ? null
+                : authentication.getName();
+    }
+
+    /**
+     * Proxies a connection and the statements it creates, and notes whether any of them changed
+     * rows: an update count above zero, or a data-changing statement read as a result set
+     * (UPDATE ... RETURNING).
+     */
+    private static final class WriteTracker {
+
+        private volatile boolean changedData;
+
+        Connection wrap(Connection connection) {
+            return (Connection) proxy(Connection.class, connection, (target, method, args) -> {
+                Object result = invoke(target, method, args);
+                if (result instanceof Statement statement) {
+                    String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                    return wrap(statement, sql);
+                }
+                return result;
+            });
+        }
+
+        private Statement wrap(Statement statement, String preparedSql) {
+            Class<? extends Statement> type = statement instanceof CallableStatement ? CallableStatement.class
+                    : statement instanceof PreparedStatement ? PreparedStatement.class
+                    : Statement.class;
+            return (Statement) proxy(type, statement, (target, method, args) -> {
+                Object result = invoke(target, method, args);
+                if (method.getName().startsWith("execute")) {
+                    String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+                    noteExecution((Statement) target, result, sql);
+                }
+                return result;
+            });
+        }
+
+        private void noteExecution(Statement statement, Object result, String sql) throws SQLException {
+            boolean changed = switch (result) {
+                case Integer count -> count > 0;
+                case Long count -> count > 0;
+                case int[] counts -> Arrays.stream(counts).anyMatch(count -> count > 0 || count == Statement.SUCCESS_NO_INFO);
+                case long[] counts -> Arrays.stream(counts).anyMatch(count -> count > 0 || count == Statement.SUCCESS_NO_INFO);
+                // execute(): false means the first result is an update count
+                case Boolean hasResultSet when !hasResultSet -> statement.getUpdateCount() > 0;
+                // executeQuery() or execute() returning rows, as UPDATE ... RETURNING does
+                case null, default -> isDataChange(sql);
+            };
+            if (changed) {
+                changedData = true;
+            }
+        }
+
+        private static boolean isDataChange(String sql) {
+            return sql != null && DATA_CHANGE.matcher(sql.toUpperCase(Locale.ROOT)).find();
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+
+        private static Object proxy(Class<?> type, Object target, TargetInvocation handler) {
+            InvocationHandler invocationHandler = (proxy, method, args) -> handler.invoke(target, method, args);
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+        }
+
+        @FunctionalInterface
+        private interface TargetInvocation {
+            Object invoke(Object target, Method method, Object[] args) throws Throwable;
+        }
+    }
+}
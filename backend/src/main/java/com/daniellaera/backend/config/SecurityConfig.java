@@ -49,6 +49,7 @@ public class SecurityConfig {
                         .requestMatchers("/api/v3/rating/**").permitAll()
                         .requestMatchers("/api/v3/borrow/**").permitAll()
                         .requestMatchers("/api/v3/features/**").permitAll()
+                        .requestMatchers("/api/v3/admin/**").hasAuthority("ADMIN")
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .addFilterBefore(jwtAuthFilter(), UsernamePasswordAuthenticationFilter.class); // Add JwtAuthFilter
@@ -0,0 +1,44 @@
+package com.daniellaera.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.quartz.autoconfigure.SchedulerFactoryBeanCustomizer;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.time.Duration;
+
+/**
+ * Opt-in with spring.threads.virtual.enabled: Tomcat then serves requests on virtual threads,
+ * and this configuration moves the Quartz jobs there as well. Since thousands of virtual threads
+ * can reach the database at once, every Hikari pool is fronted by a ConnectionLimitingDataSource.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class VirtualThreadConfig {
+
+    @Bean
+    public SchedulerFactoryBeanCustomizer virtualThreadSchedulerCustomizer() {
+        return schedulerFactoryBean -> schedulerFactoryBean.setTaskExecutor(new VirtualThreadTaskExecutor("quartz-"));
+    }
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikariDataSource) {
+                    log.info("Limiting concurrent access to {} to {} connections", beanName, hikariDataSource.getMaximumPoolSize());
+                    return new ConnectionLimitingDataSource(hikariDataSource, hikariDataSource.getMaximumPoolSize(),
+                            Duration.ofMillis(hikariDataSource.getConnectionTimeout()));
+                }
+                return bean;
+            }
+        };
+    }
+}
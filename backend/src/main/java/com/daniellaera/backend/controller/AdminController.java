@@ -0,0 +1,84 @@
+package com.daniellaera.backend.controller;
+
+import com.daniellaera.backend.dao.BookBulkDeleteReport;
+import com.daniellaera.backend.dao.CacheStatsDTO;
+import com.daniellaera.backend.dao.request.BookBulkDeleteRequest;
+import com.daniellaera.backend.properties.BookExportProperties;
+import com.daniellaera.backend.service.BookBulkDeleteService;
+import com.daniellaera.backend.service.BookExportService;
+import com.daniellaera.backend.service.BookService;
+import com.daniellaera.backend.service.SecondLevelCacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v3/admin")
+@PreAuthorize("hasAuthority('ADMIN')")
+public class AdminController {
+
+    private final SecondLevelCacheService secondLevelCacheService;
+    private final BookService bookService;
+    private final BookBulkDeleteService bookBulkDeleteService;
+    private final BookExportService bookExportService;
+    private final BookExportProperties bookExportProperties;
+
+    @Autowired
+    public AdminController(SecondLevelCacheService secondLevelCacheService,
+                           BookService bookService,
+                           BookBulkDeleteService bookBulkDeleteService,
+                           BookExportService bookExportService,
+                           BookExportProperties bookExportProperties) {
+        this.secondLevelCacheService = secondLevelCacheService;
+        this.bookService = bookService;
+        this.bookBulkDeleteService = bookBulkDeleteService;
+        this.bookExportService = bookExportService;
+        this.bookExportProperties = bookExportProperties;
+    }
+
+    @GetMapping("/cache")
+    public ResponseEntity<CacheStatsDTO> getCacheStatistics() {
+        return ResponseEntity.ok(secondLevelCacheService.getStatistics());
+    }
+
+    @DeleteMapping("/cache")
+    public ResponseEntity<Void> evictCache(@RequestParam(required = false) String region) {
+        if (region == null) {
+            secondLevelCacheService.evictAll();
+        } else {
+            secondLevelCacheService.evictRegion(region);
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/books/reconcile-counters")
+    public ResponseEntity<Map<String, Integer>> reconcileBookCounters() {
+        return ResponseEntity.ok(Map.of("reconciled", bookService.reconcileCounters()));
+    }
+
+    // Streams the whole catalog as NDJSON; only this request gets the long async timeout
+    @GetMapping("/books/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks(WebRequest request) {
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest()
+                .setTimeout(bookExportProperties.getTimeout().toMillis());
+        StreamingResponseBody body = bookExportService::exportBooks;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"books.ndjson\"")
+                .body(body);
+    }
+
+    // Body: {"ids": [...], "genre": "...", "createdBy": 1}, criteria combined with AND
+    @PostMapping("/books/bulk-delete")
+    public ResponseEntity<BookBulkDeleteReport> bulkDeleteBooks(@RequestBody BookBulkDeleteRequest request) {
+        return ResponseEntity.ok(bookBulkDeleteService.deleteBooks(request));
+    }
+}
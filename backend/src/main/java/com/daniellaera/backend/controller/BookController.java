@@ -1,46 +1,253 @@
 package com.daniellaera.backend.controller;
 
 import com.daniellaera.backend.dao.BookDTO;
+import com.daniellaera.backend.dao.BookExpansion;
+import com.daniellaera.backend.dao.BookFacetsDTO;
+import com.daniellaera.backend.dao.BookImportReport;
+import com.daniellaera.backend.dao.BookSuggestion;
+import com.daniellaera.backend.dao.BookSummary;
+import com.daniellaera.backend.dao.BookVersion;
+import com.daniellaera.backend.dao.CatalogVersion;
+import com.daniellaera.backend.dao.CursorPage;
 import com.daniellaera.backend.model.User;
+import com.daniellaera.backend.service.BookImportService;
 import com.daniellaera.backend.service.BookService;
+import com.daniellaera.backend.utils.FieldFilter;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
 @RestController
 @RequestMapping("/api/v3/book")
 @Slf4j
 public class BookController {
 
+    private static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+
     private final BookService bookService;
+    private final BookImportService bookImportService;
 
     @Autowired
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, BookImportService bookImportService) {
         this.bookService = bookService;
+        this.bookImportService = bookImportService;
     }
 
     @GetMapping
-    public Page<BookDTO> getAllBooks(Pageable pageable) {
-        return bookService.getAllBooks(pageable);
+    public Page<?> getAllBooks(
+            Pageable pageable,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String expand,
+            WebRequest request
+    ) {
+        boolean sparse = fields != null || expand != null;
+        Set<BookExpansion> expansions = sparse ? resolveExpansions(fields, expand) : null;
+        Set<String> selectedFields = sparse ? resolveFields(fields, expansions) : null;
+
+        if (isCatalogNotModified(request, selectedFields)) {
+            return null;
+        }
+        if (!sparse) {
+            return bookService.getAllBooks(pageable);
+        }
+        return bookService.getAllBooks(pageable, expansions)
+                .map(book -> FieldFilter.retain(book, selectedFields));
     }
 
-    @GetMapping("{bookId}")
-    public ResponseEntity<BookDTO> getBook(@PathVariable Integer bookId) {
-        // return bookService.findBookById(bookId)
-        //        .map(ResponseEntity::ok)
-        //        .orElseGet(() -> ResponseEntity.notFound().build());
-        return bookService.findBookById(bookId)
+    @GetMapping("/summary")
+    public Page<BookSummary> getBookSummaries(Pageable pageable, WebRequest request) {
+        if (isCatalogNotModified(request, null)) {
+            return null;
+        }
+        return bookService.getBookSummaries(pageable);
+    }
+
+    @GetMapping("/scroll")
+    public CursorPage<BookSummary> scrollBookSummaries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return bookService.scrollBookSummaries(cursor, size);
+    }
+
+    @GetMapping("/search")
+    public Page<BookSummary> searchBooks(@RequestParam("q") String query, Pageable pageable) {
+        return bookService.searchBooks(query, pageable);
+    }
+
+    @GetMapping("/suggest")
+    public List<BookSuggestion> suggestBooks(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return bookService.suggestBooks(prefix, limit);
+    }
+
+    @GetMapping("/trending")
+    public List<BookSummary> getTrendingBooks(@RequestParam(defaultValue = "10") int limit) {
+        return bookService.getTrendingBooks(limit);
+    }
+
+    @GetMapping("{bookId}/similar")
+    public List<BookSummary> getSimilarBooks(
+            @PathVariable Integer bookId,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return bookService.findSimilarBooks(bookId, limit)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Book not found"));
+    }
+
+    @GetMapping("/facets")
+    public BookFacetsDTO getFacets() {
+        return bookService.getFacets();
+    }
+
+    @GetMapping("/isbn/{isbn}")
+    public ResponseEntity<BookDTO> getBookByIsbn(@PathVariable String isbn) {
+        return bookService.findBookByIsbn(isbn)
                 .map(ResponseEntity::ok)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Book not found"));
-        // BookDTO book = bookService.findBookById(bookId).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Book not found"));
-        // return ResponseEntity.ok().body(book);
+    }
+
+    @GetMapping("{bookId}")
+    public ResponseEntity<?> getBook(
+            @PathVariable Integer bookId,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String expand,
+            WebRequest request
+    ) {
+        boolean sparse = fields != null || expand != null;
+        Set<BookExpansion> expansions = sparse ? resolveExpansions(fields, expand) : null;
+        Set<String> selectedFields = sparse ? resolveFields(fields, expansions) : null;
+
+        // Only the version is read to validate the client copy; comments, ratings and borrows load on a miss
+        BookVersion version = bookService.findBookVersion(bookId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Book not found"));
+        String eTag = version.toETag(variantOf(request, selectedFields));
+        if (checkNotModified(request, eTag, version.getUpdatedAtMillis())) {
+            return null;
+        }
+
+        Optional<BookDTO> book = sparse ? bookService.findBookById(bookId, expansions) : bookService.findBookById(bookId);
+        return book
+                .map(found -> ResponseEntity.ok()
+                        .eTag(eTag)
+                        .lastModified(version.getUpdatedAtMillis())
+                        .body(sparse ? FieldFilter.retain(found, selectedFields) : found))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Book not found"));
+    }
+
+    // ?expand= names the associations to load; associations listed in ?fields= are loaded as well
+    private Set<BookExpansion> resolveExpansions(String fields, String expand) {
+        Set<BookExpansion> expansions = expand != null ? BookExpansion.parse(expand) : EnumSet.noneOf(BookExpansion.class);
+        if (fields != null) {
+            FieldFilter.parse(fields).forEach(field -> BookExpansion.fromField(field).ifPresent(expansions::add));
+        }
+        return expansions;
+    }
+
+    // The id is always returned; without ?fields= every scalar property is, minus unexpanded associations
+    private Set<String> resolveFields(String fields, Set<BookExpansion> expansions) {
+        Set<String> selected;
+        if (fields != null) {
+            selected = new LinkedHashSet<>(List.of("id"));
+            selected.addAll(FieldFilter.parse(fields));
+            FieldFilter.validate(BookDTO.class, selected);
+        } else {
+            selected = FieldFilter.propertyNames(BookDTO.class);
+            Arrays.stream(BookExpansion.values()).map(BookExpansion::getField).forEach(selected::remove);
+        }
+        expansions.forEach(expansion -> selected.add(expansion.getField()));
+        return selected;
+    }
+
+    // Sets ETag/Last-Modified on the response and tells whether a 304 has already been sent
+    private boolean isCatalogNotModified(WebRequest request, Set<String> selectedFields) {
+        CatalogVersion catalogVersion = bookService.getCatalogVersion();
+        return checkNotModified(request, catalogVersion.toETag(variantOf(request, selectedFields)), catalogVersion.getLastModifiedMillis());
+    }
+
+    // Encoding and field selection both change the body, so each combination gets its own validator;
+    // null for the full JSON representation
+    private static String variantOf(WebRequest request, Set<String> selectedFields) {
+        String selection = selectedFields != null
+                ? DigestUtils.md5DigestAsHex(String.join(",", new TreeSet<>(selectedFields)).getBytes(StandardCharsets.UTF_8))
+                : null;
+        String encoding = encodingOf(request);
+        if (encoding == null || selection == null) {
+            return encoding != null ? encoding : selection;
+        }
+        return encoding + "-" + selection;
+    }
+
+    // The same resource is served as JSON, CBOR or Smile, so shared caches have to key on Accept as well
+    private static boolean checkNotModified(WebRequest request, String eTag, long lastModifiedMillis) {
+        if (request instanceof NativeWebRequest nativeRequest) {
+            HttpServletResponse response = nativeRequest.getNativeResponse(HttpServletResponse.class);
+            if (response != null) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+        }
+        return request.checkNotModified(eTag, lastModifiedMillis);
+    }
+
+    /**
+     * The binary encoding the message converters will pick for the Accept header, or null for
+     * JSON: the most specific acceptable type wins, and JSON is the first converter for wildcards.
+     */
+    private static String encodingOf(WebRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return null;
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        MimeTypeUtils.sortBySpecificity(acceptable);
+        for (MediaType mediaType : acceptable) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return null;
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                return "cbor";
+            }
+            if (mediaType.isCompatibleWith(APPLICATION_SMILE)) {
+                return "smile";
+            }
+        }
+        return null;
     }
 
     @PostMapping
@@ -59,6 +266,22 @@ public class BookController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdBook);
     }
 
+    // The body is read as a stream, so the whole file never has to fit in memory
+    @PostMapping(value = "/bulk", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BookImportReport> importBooks(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body,
+            @AuthenticationPrincipal User currentUser
+    ) throws IOException {
+
+        if (currentUser == null || currentUser.getEmail() == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
+        }
+
+        BookImportReport report = bookImportService.importBooks(body, MediaType.parseMediaType(contentType), currentUser.getEmail());
+        return ResponseEntity.ok(report);
+    }
+
     @DeleteMapping("{bookId}")
     public ResponseEntity<Void> deleteBook(@PathVariable Integer bookId, Authentication authentication) {
 
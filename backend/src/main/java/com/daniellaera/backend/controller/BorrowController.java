@@ -1,14 +1,21 @@
 package com.daniellaera.backend.controller;
 
 import com.daniellaera.backend.dao.BorrowDTO;
+import com.daniellaera.backend.dao.BorrowHistoryEntry;
+import com.daniellaera.backend.dao.BorrowPeriod;
+import com.daniellaera.backend.dao.CursorPage;
 import com.daniellaera.backend.service.BorrowService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v3/borrow")
 public class BorrowController {
@@ -20,6 +27,20 @@ public class BorrowController {
         this.borrowService = borrowService;
     }
 
+    @PreAuthorize("hasAuthority('USER')")
+    @GetMapping("/me")
+    public ResponseEntity<CursorPage<BorrowHistoryEntry>> getMyBorrows(
+            Authentication authentication,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        if (authentication == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
+        }
+
+        return ResponseEntity.ok(borrowService.scrollBorrowHistory(authentication.getName(), cursor, size));
+    }
+
     @GetMapping("/{bookId}")
     public ResponseEntity<BorrowDTO> getBorrowByBookId(@PathVariable Integer bookId) {
         BorrowDTO borrowDTO = borrowService.getBorrowByBookId(bookId);
@@ -27,6 +48,14 @@ public class BorrowController {
         return new ResponseEntity<>(borrowDTO, HttpStatus.OK);
     }
 
+    @GetMapping("/{bookId}/calendar")
+    public List<BorrowPeriod> getBookingCalendar(
+            @PathVariable Integer bookId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return borrowService.getBookingCalendar(bookId, from, to);
+    }
+
     @PreAuthorize("hasAuthority('USER')")
     @PostMapping("/{bookId}")
     public ResponseEntity<BorrowDTO> createBorrow(
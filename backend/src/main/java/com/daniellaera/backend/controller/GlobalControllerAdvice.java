@@ -1,5 +1,7 @@
 package com.daniellaera.backend.controller;
 
+import com.daniellaera.backend.exception.BorrowConflictException;
+import com.daniellaera.backend.exception.DuplicateIsbnException;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -22,6 +24,22 @@ public class GlobalControllerAdvice {
         return new ResponseEntity<>("User not found", HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(BorrowConflictException.class)
+    public ResponseEntity<String> handleBorrowConflictException(BorrowConflictException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    // Only the duplicate ISBN is the client's doing; other integrity violations stay 500s
+    @ExceptionHandler(DuplicateIsbnException.class)
+    public ResponseEntity<String> handleDuplicateIsbnException(DuplicateIsbnException ex) {
+        return new ResponseEntity<>("A book with this ISBN already exists", HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(ResponseStatusException.class)
     public ResponseEntity<String> handleResponseStatusException(ResponseStatusException ex) {
         return new ResponseEntity<>(ex.getReason(), ex.getStatusCode());
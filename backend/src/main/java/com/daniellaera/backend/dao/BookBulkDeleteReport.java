@@ -0,0 +1,16 @@
+package com.daniellaera.backend.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookBulkDeleteReport {
+    private Long books;
+    // Dependents removed by the ON DELETE CASCADE foreign keys
+    private Long comments;
+    private Long ratings;
+    private Long borrows;
+}
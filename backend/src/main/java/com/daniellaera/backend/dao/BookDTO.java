@@ -10,6 +10,7 @@ public class BookDTO {
     private Integer id;
     private String title;
     private String isbn;
+    private String isbn13;
     private String description;
     private String author;
     private String genre;
@@ -19,6 +20,8 @@ public class BookDTO {
     private List<RatingDTO> ratings;
     private BorrowDTO borrow;
     private Double averageRating;
+    private Integer commentCount;
+    private Integer ratingCount;
     private UserDTO userDTO;
     private Boolean isAvailable;
 }
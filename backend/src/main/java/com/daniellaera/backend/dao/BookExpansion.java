@@ -0,0 +1,47 @@
+package com.daniellaera.backend.dao;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Associations of {@link BookDTO} that are only loaded and serialized when requested.
+ */
+public enum BookExpansion {
+    COMMENTS("comments"),
+    RATINGS("ratings"),
+    BORROW("borrow");
+
+    private final String field;
+
+    BookExpansion(String field) {
+        this.field = field;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public static Optional<BookExpansion> fromField(String field) {
+        return Arrays.stream(values())
+                .filter(expansion -> expansion.field.equals(field.trim().toLowerCase(Locale.ROOT)))
+                .findFirst();
+    }
+
+    /**
+     * Parses a comma separated list such as {@code comments,borrow}.
+     */
+    public static Set<BookExpansion> parse(String expand) {
+        Set<BookExpansion> expansions = EnumSet.noneOf(BookExpansion.class);
+        for (String field : expand.split(",")) {
+            if (field.isBlank()) {
+                continue;
+            }
+            expansions.add(fromField(field).orElseThrow(() ->
+                    new IllegalArgumentException("Unsupported expansion: " + field.trim())));
+        }
+        return expansions;
+    }
+}
@@ -0,0 +1,25 @@
+package com.daniellaera.backend.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookExportDTO {
+    private Integer id;
+    private String title;
+    private String isbn;
+    private String description;
+    private String author;
+    private String genre;
+    private Date publishedDate;
+    private Date createdDate;
+    private Date updatedAt;
+    private Double averageRating;
+    private Boolean isAvailable;
+    private Integer createdBy;
+}
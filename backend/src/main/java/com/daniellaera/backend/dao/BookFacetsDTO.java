@@ -0,0 +1,16 @@
+package com.daniellaera.backend.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookFacetsDTO {
+    private Map<String, Long> genres;
+    private Long available;
+    private Long unavailable;
+}
@@ -0,0 +1,14 @@
+package com.daniellaera.backend.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImportError {
+    private Integer line;
+    private String isbn;
+    private String message;
+}
@@ -0,0 +1,19 @@
+package com.daniellaera.backend.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImportReport {
+    private Long received;
+    private Long imported;
+    private Long duplicates;
+    private Long failed;
+    // Capped; duplicates + failed is the full count
+    private List<BookImportError> errors;
+}
@@ -0,0 +1,17 @@
+package com.daniellaera.backend.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImportRow {
+    private String title;
+    private String isbn;
+    private String description;
+    private String author;
+    private String genre;
+    private String publishedDate;
+}
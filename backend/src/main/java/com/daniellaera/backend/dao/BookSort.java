@@ -0,0 +1,61 @@
+package com.daniellaera.backend.dao;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Orders supported by the catalog listings. Each one is backed by a (column, id) index
+ * (V12, V18), so a page is read from the index in order rather than by sorting _book.
+ */
+public enum BookSort {
+    ID("id"),
+    TITLE("title"),
+    ISBN("isbn"),
+    AUTHOR("author"),
+    PUBLISHED_DATE("publishedDate"),
+    AVERAGE_RATING("averageRating"),
+    CREATED_DATE("createdDate");
+
+    private final String property;
+
+    BookSort(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * Checks the requested sort against the whitelist and adds the id as tiebreaker, in the same
+     * direction so that the index can be walked either way. Unsorted requests are ordered by id.
+     */
+    public static Pageable resolve(Pageable pageable) {
+        List<Sort.Order> orders = pageable.getSort().stream()
+                .filter(order -> !order.getProperty().equals(ID.property))
+                .toList();
+        if (orders.size() > 1) {
+            throw new IllegalArgumentException("Sorting is supported on a single property");
+        }
+
+        Sort sort;
+        if (orders.isEmpty()) {
+            Sort.Order idOrder = pageable.getSort().getOrderFor(ID.property);
+            sort = Sort.by(idOrder != null ? idOrder.getDirection() : Sort.Direction.ASC, ID.property);
+        } else {
+            Sort.Order order = orders.getFirst();
+            BookSort key = Arrays.stream(values())
+                    .filter(candidate -> candidate.property.equals(order.getProperty()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unsupported sort: " + order.getProperty()));
+            sort = Sort.by(order.getDirection(), key.property).and(Sort.by(order.getDirection(), ID.property));
+        }
+        return pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort)
+                : Pageable.unpaged(sort);
+    }
+}
@@ -0,0 +1,24 @@
+package com.daniellaera.backend.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Slim, read-only view of a book used by catalog listings. It is built directly
+ * by a JPQL constructor expression, so no comments, ratings or borrows are loaded.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSummary {
+    private Integer id;
+    private String title;
+    private String author;
+    private String genre;
+    private Double averageRating;
+    private Boolean isAvailable;
+    private Integer commentCount;
+    private Integer ratingCount;
+    private String creatorFullName;
+}
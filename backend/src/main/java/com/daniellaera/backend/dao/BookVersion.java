@@ -0,0 +1,35 @@
+package com.daniellaera.backend.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookVersion {
+    private Integer id;
+    private Long version;
+    private Date updatedAt;
+
+    /**
+     * Strong validator for the book detail representation.
+     */
+    public String toETag() {
+        return toETag(null);
+    }
+
+    /**
+     * Strong validator for one variant of the book detail, e.g. another encoding; the default
+     * representation has no variant.
+     */
+    public String toETag(String variant) {
+        return "\"" + id + "-" + version + (variant != null ? "-" + variant : "") + "\"";
+    }
+
+    public long getUpdatedAtMillis() {
+        return updatedAt != null ? updatedAt.getTime() : 0L;
+    }
+}
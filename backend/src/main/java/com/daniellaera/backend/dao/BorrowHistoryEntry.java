@@ -0,0 +1,23 @@
+package com.daniellaera.backend.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * One line of a user's borrowing history. Built by a JPQL constructor expression that joins
+ * only the book title, so neither the borrow nor the book entity is loaded.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorrowHistoryEntry {
+    private Integer id;
+    private Integer bookId;
+    private String bookTitle;
+    private Date borrowStartDate;
+    private Date borrowEndDate;
+    private Boolean isReturned;
+}
@@ -0,0 +1,19 @@
+package com.daniellaera.backend.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * A booked date range of a book, both ends inclusive. The calendar shows when a copy is taken,
+ * not by whom, so the borrower is left out.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorrowPeriod {
+    private Date borrowStartDate;
+    private Date borrowEndDate;
+}
@@ -0,0 +1,18 @@
+package com.daniellaera.backend.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheRegionStatsDTO {
+    private String region;
+    private Long hitCount;
+    private Long missCount;
+    private Long putCount;
+    private Long removeCount;
+    private Long evictionCount;
+    private Long elementCount;
+}
@@ -0,0 +1,18 @@
+package com.daniellaera.backend.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsDTO {
+    private Boolean statisticsEnabled;
+    private Long hitCount;
+    private Long missCount;
+    private Long putCount;
+    private List<CacheRegionStatsDTO> regions;
+}
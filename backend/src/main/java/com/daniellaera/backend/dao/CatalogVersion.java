@@ -0,0 +1,31 @@
+package com.daniellaera.backend.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogVersion {
+    private Long bookCount;
+    private Date lastModified;
+
+    /**
+     * Weak validator for catalog listings: the count catches deletes, the newest
+     * modification time catches inserts and updates.
+     */
+    public String toETag() {
+        return toETag(null);
+    }
+
+    public String toETag(String variant) {
+        return "W/\"" + bookCount + "-" + getLastModifiedMillis() + (variant != null ? "-" + variant : "") + "\"";
+    }
+
+    public long getLastModifiedMillis() {
+        return lastModified != null ? lastModified.getTime() : 0L;
+    }
+}
@@ -0,0 +1,19 @@
+package com.daniellaera.backend.dao.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Criteria are combined with AND; at least one is required
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookBulkDeleteRequest {
+    private List<Integer> ids;
+    private String genre;
+    private Integer createdBy;
+}
@@ -0,0 +1,12 @@
+package com.daniellaera.backend.exception;
+
+/**
+ * A borrow was requested for a period in which the book is already borrowed or reserved
+ * (ex_borrow_book_period).
+ */
+public class BorrowConflictException extends RuntimeException {
+
+    public BorrowConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.daniellaera.backend.exception;
+
+/**
+ * A book was created with an ISBN already in the catalog (uk_book_isbn13).
+ */
+public class DuplicateIsbnException extends RuntimeException {
+
+    public DuplicateIsbnException(String isbn, Throwable cause) {
+        super("A book with ISBN " + isbn + " already exists", cause);
+    }
+}
@@ -4,8 +4,15 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.util.Date;
 import java.util.List;
@@ -15,6 +22,8 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book")
 @Table(name = "_book")
 public class Book {
     @Id
@@ -23,6 +32,10 @@ public class Book {
 
     private String title;
     private String isbn;
+
+    // Normalized form of isbn, unique (uk_book_isbn13); see IsbnUtils
+    @Column(length = 13)
+    private String isbn13;
     private String description;
     private String author;
     private String genre;
@@ -34,20 +47,56 @@ public class Book {
     @Temporal(TemporalType.DATE) // Represents the book's real-world publication date
     private Date publishedDate;
 
+    @UpdateTimestamp
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updatedAt;
+
+    @Version
+    private Long version;
+
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book-comments")
+    @BatchSize(size = 50)
     private List<Comment> comments;
 
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book-ratings")
+    @BatchSize(size = 50)
     private List<Rating> ratings;
 
-    @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book-borrows")
+    @BatchSize(size = 50)
     private List<Borrow> borrows;
 
+    // Borrow holding the copy today; maintained only by BorrowServiceImpl, never written back from the entity
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "current_borrow_id", insertable = false, updatable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Borrow currentBorrow;
+
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "created_by", nullable = false)
     private User createdBy;
 
     private Double averageRating;
 
+    // Maintained only by BookCounterRepository, never written back from the entity
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Integer commentCount = 0;
+
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Integer ratingCount = 0;
+
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Long ratingSum = 0L;
+
     private Boolean isAvailable = true;
 }
@@ -0,0 +1,15 @@
+package com.daniellaera.backend.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "book.bulk-delete")
+public class BookBulkDeleteProperties {
+    // Books deleted per statement; each chunk commits in its own transaction
+    private int chunkSize = 1000;
+}
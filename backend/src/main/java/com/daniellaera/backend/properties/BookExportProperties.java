@@ -0,0 +1,17 @@
+package com.daniellaera.backend.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "book.export")
+public class BookExportProperties {
+    // Async timeout of the catalog export request only; every other request keeps the default
+    private Duration timeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,15 @@
+package com.daniellaera.backend.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "book.import")
+public class BookImportProperties {
+    // Rows inserted per JDBC batch; each batch commits in its own transaction
+    private int batchSize = 500;
+}
@@ -0,0 +1,26 @@
+package com.daniellaera.backend.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "book.similarity")
+public class BookSimilarityProperties {
+    // When the similarity matrix is rebuilt from _rating
+    private String cron = "0 30 2 * * ?";
+    // Neighbours kept per book, also the largest ?limit= served by /similar
+    private int neighbours = 20;
+    // Pairs of books rated together by fewer users are not considered similar
+    private int minCoRatings = 2;
+    // Users with more ratings are left out of the matrix, their cost grows with the square of that number
+    private int maxRatingsPerUser = 500;
+    // Only the most recent raters of each book are read, so a rebuild holds at most books x this many ratings
+    // (about 16 bytes each) whatever the size of _rating
+    private int maxRatersPerBook = 1000;
+    // Rows fetched per round trip while streaming _rating
+    private int fetchSize = 10000;
+}
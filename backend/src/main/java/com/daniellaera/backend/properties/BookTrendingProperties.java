@@ -0,0 +1,23 @@
+package com.daniellaera.backend.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "book.trending")
+public class BookTrendingProperties {
+    // Time after which an event counts for half as much
+    private Duration halfLife = Duration.ofHours(24);
+    // Books kept on the leaderboard, also the largest ?limit= served by /trending
+    private int size = 50;
+    // Scores that decayed below this are forgotten at the next snapshot
+    private double minScore = 0.01;
+    // When the scores are written to _book_trending
+    private String snapshotCron = "0 */5 * * * ?";
+}
@@ -0,0 +1,23 @@
+package com.daniellaera.backend.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "datasource.replica")
+public class ReplicaDataSourceProperties {
+    // JDBC url of the read replica; read-only transactions are only routed when it is set
+    private String url;
+    // Fall back to spring.datasource.username/password when not set
+    private String username;
+    private String password;
+    private int maximumPoolSize = 10;
+    // How long a client keeps reading from the primary after committing a write, to cover replication lag
+    private Duration stickyWindow = Duration.ofSeconds(5);
+}
@@ -0,0 +1,24 @@
+package com.daniellaera.backend.repository;
+
+/**
+ * In-place updates of the counters and availability of a book. They are written behind
+ * Hibernate's back and evict only the books they changed from the second-level cache, where a
+ * JPQL bulk update would empty the whole book region.
+ */
+public interface BookCounterRepository {
+
+    // Comments and ratings are part of the book representation, so adding one also has to change its validators.
+    // Both counters are bumped in place, so concurrent writers never lose an increment.
+    int incrementCommentCount(Integer bookId);
+
+    // The average is derived from the counters of the same row, so it needs neither the ratings nor a prior read
+    int addRating(Integer bookId, long score);
+
+    // Atomic claim of the copy: among concurrent borrowers one updates the row, the others block on its lock,
+    // re-check is_available once it commits and update nothing
+    int claimForBorrow(Integer bookId);
+
+    // Recomputes the counters and the average from _comment and _rating, only rewriting (and re-versioning)
+    // the rows that drifted
+    int reconcileCounters();
+}
@@ -0,0 +1,107 @@
+package com.daniellaera.backend.repository;
+
+import com.daniellaera.backend.model.Book;
+import com.daniellaera.backend.utils.TransactionUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+class BookCounterRepositoryImpl implements BookCounterRepository {
+
+    // Same formula in addRating and reconcileCounters: an average is only shown from the second rating on
+    private static final String AVERAGE_RATING =
+            "CASE WHEN %1$s >= 2 THEN least(%2$s * 2.0 / %1$s, 5.0) ELSE b.average_rating END";
+
+    // updated_at feeds the catalog ETag: clock_timestamp() is the time of the write itself, where
+    // CURRENT_TIMESTAMP would be the start of the transaction and could predate an ETag already served
+    private static final String INCREMENT_COMMENT_COUNT =
+            "UPDATE _book b SET comment_count = b.comment_count + 1, " +
+            "version = b.version + 1, updated_at = clock_timestamp() WHERE b.id = :bookId";
+    private static final String ADD_RATING =
+            "UPDATE _book b SET rating_count = b.rating_count + 1, rating_sum = b.rating_sum + :score, " +
+            "average_rating = " + AVERAGE_RATING.formatted("(b.rating_count + 1)", "(b.rating_sum + :score)") + ", " +
+            "version = b.version + 1, updated_at = clock_timestamp() WHERE b.id = :bookId";
+    private static final String CLAIM_FOR_BORROW =
+            "UPDATE _book b SET is_available = FALSE, version = b.version + 1, updated_at = clock_timestamp() " +
+            "WHERE b.id = :bookId AND coalesce(b.is_available, TRUE) = TRUE";
+    private static final String RECONCILE_COUNTERS =
+            "UPDATE _book b SET comment_count = actual.comments, rating_count = actual.ratings, " +
+            "rating_sum = actual.score_sum, average_rating = actual.average, " +
+            "version = b.version + 1, updated_at = clock_timestamp() " +
+            "FROM (SELECT counts.*, " + AVERAGE_RATING.formatted("counts.ratings", "counts.score_sum") + " AS average " +
+            "FROM (SELECT b.id, b.average_rating, " +
+            "(SELECT count(*) FROM _comment c WHERE c.book_id = b.id) AS comments, " +
+            "(SELECT count(*) FROM _rating r WHERE r.book_id = b.id) AS ratings, " +
+            "(SELECT coalesce(sum(r.score), 0) FROM _rating r WHERE r.book_id = b.id) AS score_sum " +
+            "FROM _book b) counts) actual " +
+            "WHERE b.id = actual.id AND (b.comment_count <> actual.comments OR b.rating_count <> actual.ratings " +
+            "OR b.rating_sum <> actual.score_sum OR b.average_rating IS DISTINCT FROM actual.average) " +
+            "RETURNING b.id";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    BookCounterRepositoryImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                              EntityManagerFactory entityManagerFactory) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    @Transactional
+    public int incrementCommentCount(Integer bookId) {
+        return updateBook(INCREMENT_COMMENT_COUNT, new MapSqlParameterSource("bookId", bookId), bookId);
+    }
+
+    @Override
+    @Transactional
+    public int addRating(Integer bookId, long score) {
+        return updateBook(ADD_RATING, new MapSqlParameterSource("bookId", bookId).addValue("score", score), bookId);
+    }
+
+    @Override
+    @Transactional
+    public int claimForBorrow(Integer bookId) {
+        return updateBook(CLAIM_FOR_BORROW, new MapSqlParameterSource("bookId", bookId), bookId);
+    }
+
+    @Override
+    @Transactional
+    public int reconcileCounters() {
+        // the counts must include comments and ratings still pending in the persistence context
+        entityManager.flush();
+        List<Integer> bookIds = namedParameterJdbcTemplate.queryForList(RECONCILE_COUNTERS, new MapSqlParameterSource(), Integer.class);
+        evictAfterCommit(bookIds);
+        return bookIds.size();
+    }
+
+    private int updateBook(String sql, MapSqlParameterSource parameters, Integer bookId) {
+        entityManager.flush();
+        int updated = namedParameterJdbcTemplate.update(sql, parameters);
+        if (updated > 0) {
+            evictAfterCommit(List.of(bookId));
+        }
+        return updated;
+    }
+
+    private void evictAfterCommit(List<Integer> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> {
+            Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+            bookIds.forEach(id -> cache.evictEntityData(Book.class, id));
+        });
+    }
+}
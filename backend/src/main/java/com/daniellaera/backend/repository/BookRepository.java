@@ -1,13 +1,109 @@
 package com.daniellaera.backend.repository;
 
+import com.daniellaera.backend.dao.BookExportDTO;
+import com.daniellaera.backend.dao.BookFacetCount;
+import com.daniellaera.backend.dao.BookSuggestion;
+import com.daniellaera.backend.dao.BookSummary;
+import com.daniellaera.backend.dao.BookVersion;
+import com.daniellaera.backend.dao.CatalogVersion;
 import com.daniellaera.backend.model.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
-import java.util.Date;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Integer> {
-    List<Book> findByBorrows_BorrowEndDateBeforeAndIsAvailableFalse(Date now);
+public interface BookRepository extends JpaRepository<Book, Integer>, BookCounterRepository {
+
+    // Full BookDTO pages: the creator is joined, the collections are batch-loaded (@BatchSize) for the whole page
+    @Override
+    @EntityGraph(attributePaths = "createdBy")
+    Page<Book> findAll(Pageable pageable);
+
+    // Book detail: creator, comments and comment authors in one statement, ratings and borrows in one batch each.
+    // Only one bag can be join fetched, hence comments here and the rest left to batch loading.
+    @EntityGraph(attributePaths = {"createdBy", "comments", "comments.user"})
+    Optional<Book> findDetailedById(Integer id);
+
+    // Circulation desk lookup on uk_book_isbn13, loaded like the book detail
+    @EntityGraph(attributePaths = {"createdBy", "comments", "comments.user"})
+    Optional<Book> findByIsbn13(String isbn13);
+
+    // Book detail without comments; any other collection is only loaded if it is touched
+    @EntityGraph(attributePaths = "createdBy")
+    Optional<Book> findWithCreatorById(Integer id);
+
+    // Single round trip per page: the creator is joined, collections are never touched
+    @Query(value = "SELECT new com.daniellaera.backend.dao.BookSummary(" +
+            "b.id, b.title, b.author, b.genre, b.averageRating, b.isAvailable, b.commentCount, b.ratingCount, " +
+            "concat(u.firstName, ' ', u.lastName)) " +
+            "FROM Book b JOIN b.createdBy u",
+            countQuery = "SELECT count(b) FROM Book b")
+    Page<BookSummary> findAllSummaries(Pageable pageable);
+
+    // Keyset pagination ordered by (title, id), both backed by idx_book_title_id
+    @Query("SELECT new com.daniellaera.backend.dao.BookSummary(" +
+            "b.id, b.title, b.author, b.genre, b.averageRating, b.isAvailable, b.commentCount, b.ratingCount, " +
+            "concat(u.firstName, ' ', u.lastName)) " +
+            "FROM Book b JOIN b.createdBy u ORDER BY b.title, b.id")
+    List<BookSummary> findFirstSummariesOrderByTitle(Pageable pageable);
+
+    @Query("SELECT new com.daniellaera.backend.dao.BookSummary(" +
+            "b.id, b.title, b.author, b.genre, b.averageRating, b.isAvailable, b.commentCount, b.ratingCount, " +
+            "concat(u.firstName, ' ', u.lastName)) " +
+            "FROM Book b JOIN b.createdBy u WHERE (b.title, b.id) > (:title, :id) ORDER BY b.title, b.id")
+    List<BookSummary> findSummariesAfterTitle(String title, Integer id, Pageable pageable);
+
+    // Unordered, callers put the rows back in the order of the ids they asked for
+    @Query("SELECT new com.daniellaera.backend.dao.BookSummary(" +
+            "b.id, b.title, b.author, b.genre, b.averageRating, b.isAvailable, b.commentCount, b.ratingCount, " +
+            "concat(u.firstName, ' ', u.lastName)) " +
+            "FROM Book b JOIN b.createdBy u WHERE b.id IN :ids")
+    List<BookSummary> findSummariesByIdIn(Collection<Integer> ids);
+
+    // Full-text search on the generated search_vector column (GIN indexed), best matches first
+    @Query(value = "SELECT b.id AS id, b.title AS title, b.author AS author, b.genre AS genre, " +
+            "b.average_rating AS \"averageRating\", b.is_available AS \"isAvailable\", " +
+            "b.comment_count AS \"commentCount\", b.rating_count AS \"ratingCount\", " +
+            "u.first_name || ' ' || u.last_name AS \"creatorFullName\" " +
+            "FROM _book b JOIN _user u ON u.id = b.created_by, websearch_to_tsquery('english', :query) q " +
+            "WHERE b.search_vector @@ q " +
+            "ORDER BY ts_rank(b.search_vector, q) DESC, b.id",
+            countQuery = "SELECT count(*) FROM _book b WHERE b.search_vector @@ websearch_to_tsquery('english', :query)",
+            nativeQuery = true)
+    Page<BookSummary> searchSummaries(String query, Pageable pageable);
+
+    @Query("SELECT new com.daniellaera.backend.dao.BookSuggestion(b.id, b.title, b.author) FROM Book b")
+    List<BookSuggestion> findAllSuggestions();
+
+    @Query("SELECT new com.daniellaera.backend.dao.BookFacetCount(b.genre, b.isAvailable, count(b)) " +
+            "FROM Book b GROUP BY b.genre, b.isAvailable")
+    List<BookFacetCount> countByGenreAndAvailability();
+
+    @Query("SELECT new com.daniellaera.backend.dao.BookVersion(b.id, b.version, b.updatedAt) FROM Book b WHERE b.id = :bookId")
+    Optional<BookVersion> findVersionById(Integer bookId);
+
+    @Query("SELECT new com.daniellaera.backend.dao.CatalogVersion(count(b), max(b.updatedAt)) FROM Book b")
+    CatalogVersion findCatalogVersion();
+
+    // Forward-only cursor for the catalog export; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.daniellaera.backend.dao.BookExportDTO(" +
+            "b.id, b.title, b.isbn, b.description, b.author, b.genre, b.publishedDate, b.createdDate, " +
+            "b.updatedAt, b.averageRating, b.isAvailable, b.createdBy.id) " +
+            "FROM Book b ORDER BY b.id")
+    Stream<BookExportDTO> streamAllForExport();
 }
@@ -1,16 +1,22 @@
 package com.daniellaera.backend.repository;
 
 import com.daniellaera.backend.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
-    // Since email is unique, we'll find users by email
+    // Since email is unique, we'll find users by email. Resolved on every authenticated
+    // request, so the id lookup is served from the query cache and the User from L2.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByEmail(String email);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByGithubId(String githubId);
 
     boolean existsByEmail(String email);
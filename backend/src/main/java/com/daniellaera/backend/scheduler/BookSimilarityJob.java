@@ -0,0 +1,34 @@
+package com.daniellaera.backend.scheduler;
+
+import com.daniellaera.backend.service.impl.BookSimilarityIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+@DisallowConcurrentExecution  // a rebuild holds the whole rating set in memory, never run two
+public class BookSimilarityJob implements Job {
+
+    private final BookSimilarityIndex bookSimilarityIndex;
+
+    @Autowired
+    public BookSimilarityJob(BookSimilarityIndex bookSimilarityIndex) {
+        this.bookSimilarityIndex = bookSimilarityIndex;
+    }
+
+    @Override
+    public void execute(JobExecutionContext jobExecutionContext) throws JobExecutionException {
+        log.info("Running BookSimilarityJob...");
+        try {
+            bookSimilarityIndex.rebuild();
+        } catch (Exception e) {
+            log.error("Error occurred while building the similarity matrix: {}", e.getMessage(), e);
+            throw new JobExecutionException("Failed to build the similarity matrix", e);
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.daniellaera.backend.scheduler;
 
-import com.daniellaera.backend.service.BookService;
+import com.daniellaera.backend.service.BorrowService;
 import lombok.extern.slf4j.Slf4j;
 import org.quartz.Job;
 import org.quartz.JobExecutionContext;
@@ -12,18 +12,19 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class BookStatusUpdateJob implements Job {
 
-    private final BookService bookService;
+    private final BorrowService borrowService;
 
     @Autowired
-    public BookStatusUpdateJob(BookService bookService) {
-        this.bookService = bookService;
+    public BookStatusUpdateJob(BorrowService borrowService) {
+        this.borrowService = borrowService;
     }
 
     @Override
     public void execute(JobExecutionContext jobExecutionContext) throws JobExecutionException {
         log.info("Running BookStatusUpdateJob...");
         try {
-            bookService.updateExpiredBookStatus();
+            borrowService.expireOverdueBorrows();
+            borrowService.startDueReservations();
         } catch (Exception e) {
             log.error("Error occurred while updating book statuses: {}", e.getMessage(), e);
             throw new JobExecutionException("Failed to update book statuses", e);
@@ -0,0 +1,34 @@
+package com.daniellaera.backend.scheduler;
+
+import com.daniellaera.backend.service.impl.BookTrendingTracker;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+@DisallowConcurrentExecution
+public class BookTrendingSnapshotJob implements Job {
+
+    private final BookTrendingTracker bookTrendingTracker;
+
+    @Autowired
+    public BookTrendingSnapshotJob(BookTrendingTracker bookTrendingTracker) {
+        this.bookTrendingTracker = bookTrendingTracker;
+    }
+
+    @Override
+    public void execute(JobExecutionContext jobExecutionContext) throws JobExecutionException {
+        log.info("Running BookTrendingSnapshotJob...");
+        try {
+            bookTrendingTracker.snapshot();
+        } catch (Exception e) {
+            log.error("Error occurred while writing the trending snapshot: {}", e.getMessage(), e);
+            throw new JobExecutionException("Failed to write the trending snapshot", e);
+        }
+    }
+}
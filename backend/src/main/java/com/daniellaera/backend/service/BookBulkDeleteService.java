@@ -0,0 +1,10 @@
+package com.daniellaera.backend.service;
+
+import com.daniellaera.backend.dao.BookBulkDeleteReport;
+import com.daniellaera.backend.dao.request.BookBulkDeleteRequest;
+import org.springframework.stereotype.Service;
+
+@Service
+public interface BookBulkDeleteService {
+    BookBulkDeleteReport deleteBooks(BookBulkDeleteRequest request);
+}
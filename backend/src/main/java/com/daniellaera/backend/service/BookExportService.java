@@ -0,0 +1,11 @@
+package com.daniellaera.backend.service;
+
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+@Service
+public interface BookExportService {
+    long exportBooks(OutputStream out) throws IOException;
+}
@@ -0,0 +1,15 @@
+package com.daniellaera.backend.service;
+
+import com.daniellaera.backend.dao.BookImportReport;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@Service
+public interface BookImportService {
+    MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    BookImportReport importBooks(InputStream body, MediaType contentType, String userEmail) throws IOException;
+}
@@ -1,21 +1,59 @@
 package com.daniellaera.backend.service;
 
 import com.daniellaera.backend.dao.BookDTO;
+import com.daniellaera.backend.dao.BookExpansion;
+import com.daniellaera.backend.dao.BookFacetsDTO;
+import com.daniellaera.backend.dao.BookSuggestion;
+import com.daniellaera.backend.dao.BookSummary;
+import com.daniellaera.backend.dao.BookVersion;
+import com.daniellaera.backend.dao.CatalogVersion;
+import com.daniellaera.backend.dao.CursorPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public interface BookService {
     Page<BookDTO> getAllBooks(Pageable pageable);
 
+    // Associations outside the expansions are neither loaded nor set on the DTOs
+    Page<BookDTO> getAllBooks(Pageable pageable, Set<BookExpansion> expansions);
+
+    Page<BookSummary> getBookSummaries(Pageable pageable);
+
+    CursorPage<BookSummary> scrollBookSummaries(String cursor, int size);
+
+    Page<BookSummary> searchBooks(String query, Pageable pageable);
+
+    List<BookSuggestion> suggestBooks(String prefix, int limit);
+
+    // Most similar books first, from the precomputed rating matrix; empty when the book does not exist
+    Optional<List<BookSummary>> findSimilarBooks(Integer bookId, int limit);
+
+    // Most borrowed, rated and commented books lately, best first
+    List<BookSummary> getTrendingBooks(int limit);
+
+    BookFacetsDTO getFacets();
+
     Optional<BookDTO> findBookById(Integer bookId);
 
+    Optional<BookDTO> findBookById(Integer bookId, Set<BookExpansion> expansions);
+
+    // Accepts ISBN-10 or ISBN-13, with or without separators
+    Optional<BookDTO> findBookByIsbn(String isbn);
+
+    Optional<BookVersion> findBookVersion(Integer bookId);
+
+    CatalogVersion getCatalogVersion();
+
     BookDTO createBook(BookDTO book, String userEmail);
 
     void deleteBook(Integer bookId);
 
-    void updateExpiredBookStatus();
+    // Recomputes the denormalized comment and rating counters, returns the number of books that were corrected
+    int reconcileCounters();
 }
@@ -1,11 +1,28 @@
 package com.daniellaera.backend.service;
 
 import com.daniellaera.backend.dao.BorrowDTO;
+import com.daniellaera.backend.dao.BorrowHistoryEntry;
+import com.daniellaera.backend.dao.BorrowPeriod;
+import com.daniellaera.backend.dao.CursorPage;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @Service
 public interface BorrowService {
     BorrowDTO createBorrowByBookIdAndUserId(Integer bookId, String userEmail, BorrowDTO borrowDTO);
 
     BorrowDTO getBorrowByBookId(Integer bookId);
+
+    // Open borrows and reservations of the book overlapping [from, to], earliest first
+    List<BorrowPeriod> getBookingCalendar(Integer bookId, LocalDate from, LocalDate to);
+
+    CursorPage<BorrowHistoryEntry> scrollBorrowHistory(String userEmail, String cursor, int size);
+
+    // Marks overdue borrows as returned and frees their books; returns the number of borrows closed
+    long expireOverdueBorrows();
+
+    // Points books at the borrow covering today and marks them unavailable; returns the number of books taken
+    long startDueReservations();
 }
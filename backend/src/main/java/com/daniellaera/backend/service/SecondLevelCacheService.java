@@ -0,0 +1,13 @@
+package com.daniellaera.backend.service;
+
+import com.daniellaera.backend.dao.CacheStatsDTO;
+import org.springframework.stereotype.Service;
+
+@Service
+public interface SecondLevelCacheService {
+    CacheStatsDTO getStatistics();
+
+    void evictAll();
+
+    void evictRegion(String region);
+}
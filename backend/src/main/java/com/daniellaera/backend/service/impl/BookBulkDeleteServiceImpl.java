@@ -0,0 +1,179 @@
+package com.daniellaera.backend.service.impl;
+
+import com.daniellaera.backend.dao.BookBulkDeleteReport;
+import com.daniellaera.backend.dao.request.BookBulkDeleteRequest;
+import com.daniellaera.backend.model.Book;
+import com.daniellaera.backend.model.Borrow;
+import com.daniellaera.backend.model.Comment;
+import com.daniellaera.backend.model.Rating;
+import com.daniellaera.backend.model.User;
+import com.daniellaera.backend.properties.BookBulkDeleteProperties;
+import com.daniellaera.backend.service.BookBulkDeleteService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Deletes books in chunks with plain DELETE statements on _book; comments, ratings, borrows
+ * and trending rows go with them through their ON DELETE CASCADE foreign keys. Nothing is
+ * loaded into the persistence context, and each chunk commits on its own so row locks are
+ * held for one chunk only.
+ */
+@Component
+@Slf4j
+public class BookBulkDeleteServiceImpl implements BookBulkDeleteService {
+
+    // Counted before the delete, in the same transaction, since cascaded rows are not returned
+    private static final String COUNT_DEPENDENTS =
+            "SELECT (SELECT count(*) FROM _comment WHERE book_id IN (:ids)), " +
+            "(SELECT count(*) FROM _rating WHERE book_id IN (:ids)), " +
+            "(SELECT count(*) FROM _borrow WHERE book_id IN (:ids))";
+    private static final String DELETE_BOOKS =
+            "DELETE FROM _book WHERE id IN (:ids) RETURNING id, genre, is_available, created_by";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookSuggestionIndex bookSuggestionIndex;
+    private final BookFacetCounter bookFacetCounter;
+    private final BookTrendingTracker bookTrendingTracker;
+    private final EntityManagerFactory entityManagerFactory;
+    private final BookBulkDeleteProperties bookBulkDeleteProperties;
+
+    @Autowired
+    public BookBulkDeleteServiceImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                                     TransactionTemplate transactionTemplate,
+                                     BookSuggestionIndex bookSuggestionIndex,
+                                     BookFacetCounter bookFacetCounter,
+                                     BookTrendingTracker bookTrendingTracker,
+                                     EntityManagerFactory entityManagerFactory,
+                                     BookBulkDeleteProperties bookBulkDeleteProperties) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.bookSuggestionIndex = bookSuggestionIndex;
+        this.bookFacetCounter = bookFacetCounter;
+        this.bookTrendingTracker = bookTrendingTracker;
+        this.entityManagerFactory = entityManagerFactory;
+        this.bookBulkDeleteProperties = bookBulkDeleteProperties;
+    }
+
+    @Override
+    public BookBulkDeleteReport deleteBooks(BookBulkDeleteRequest request) {
+        List<Integer> ids = request.getIds() == null ? List.of() : request.getIds().stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toList();
+        boolean hasGenre = request.getGenre() != null && !request.getGenre().isBlank();
+        if (ids.isEmpty() && !hasGenre && request.getCreatedBy() == null) {
+            throw new IllegalArgumentException("Bulk delete needs ids, a genre or a creator");
+        }
+
+        // Fixed fragments only, every value is a bind parameter
+        StringBuilder criteria = new StringBuilder("id > :after");
+        MapSqlParameterSource parameters = new MapSqlParameterSource("after", 0)
+                .addValue("limit", bookBulkDeleteProperties.getChunkSize());
+        if (!ids.isEmpty()) {
+            criteria.append(" AND id IN (:ids)");
+        }
+        if (hasGenre) {
+            criteria.append(" AND genre = :genre");
+            parameters.addValue("genre", request.getGenre());
+        }
+        if (request.getCreatedBy() != null) {
+            criteria.append(" AND created_by = :createdBy");
+            parameters.addValue("createdBy", request.getCreatedBy());
+        }
+        String selectChunk = "SELECT id FROM _book WHERE " + criteria + " ORDER BY id LIMIT :limit";
+
+        long start = System.currentTimeMillis();
+        BookBulkDeleteReport report = new BookBulkDeleteReport(0L, 0L, 0L, 0L);
+        if (ids.isEmpty()) {
+            // keyset on id, so each chunk starts where the previous one stopped
+            int after = 0;
+            Integer last;
+            while ((last = deleteChunk(selectChunk, parameters.addValue("after", after), report)) != null) {
+                after = last;
+            }
+        } else {
+            int chunkSize = bookBulkDeleteProperties.getChunkSize();
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                parameters.addValue("ids", ids.subList(from, Math.min(from + chunkSize, ids.size())));
+                deleteChunk(selectChunk, parameters, report);
+            }
+        }
+
+        // the affected comment, rating and borrow ids are unknown, so their regions go as a whole
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        cache.evictEntityData(Comment.class);
+        cache.evictEntityData(Rating.class);
+        cache.evictEntityData(Borrow.class);
+        cache.evictCollectionData(User.class.getName() + ".ratings");
+        cache.evictQueryRegions();
+
+        log.info("Bulk deleted {} books, {} comments, {} ratings and {} borrows in {} ms",
+                report.getBooks(), report.getComments(), report.getRatings(), report.getBorrows(),
+                System.currentTimeMillis() - start);
+        return report;
+    }
+
+    /**
+     * Deletes one chunk in its own transaction and returns the highest id it selected, or null
+     * when no book matched anymore.
+     */
+    private Integer deleteChunk(String selectChunk, MapSqlParameterSource parameters, BookBulkDeleteReport report) {
+        DeletedChunk chunk = transactionTemplate.execute(status -> {
+            List<Integer> chunkIds = namedParameterJdbcTemplate.queryForList(selectChunk, parameters, Integer.class);
+            if (chunkIds.isEmpty()) {
+                return null;
+            }
+            MapSqlParameterSource idParameters = new MapSqlParameterSource("ids", chunkIds);
+            long[] dependents = namedParameterJdbcTemplate.queryForObject(COUNT_DEPENDENTS, idParameters,
+                    (resultSet, rowNum) -> new long[]{resultSet.getLong(1), resultSet.getLong(2), resultSet.getLong(3)});
+            List<DeletedBook> books = namedParameterJdbcTemplate.query(DELETE_BOOKS, idParameters, (resultSet, rowNum) -> new DeletedBook(
+                    resultSet.getInt("id"),
+                    resultSet.getString("genre"),
+                    (Boolean) resultSet.getObject("is_available"),
+                    resultSet.getInt("created_by")));
+            return new DeletedChunk(chunkIds.getLast(), books, dependents);
+        });
+        if (chunk == null) {
+            return null;
+        }
+
+        // committed, bring the in-memory views and the second-level cache in line
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        List<Integer> deletedIds = new ArrayList<>(chunk.books().size());
+        for (DeletedBook book : chunk.books()) {
+            deletedIds.add(book.id());
+            bookSuggestionIndex.remove(book.id());
+            bookFacetCounter.bookRemoved(book.genre(), book.isAvailable());
+            cache.evictEntityData(Book.class, book.id());
+            cache.evictCollectionData(Book.class.getName() + ".comments", book.id());
+            cache.evictCollectionData(Book.class.getName() + ".ratings", book.id());
+            cache.evictCollectionData(Book.class.getName() + ".borrows", book.id());
+            cache.evictCollectionData(User.class.getName() + ".books", book.createdBy());
+        }
+        bookTrendingTracker.removeAll(deletedIds);
+
+        report.setBooks(report.getBooks() + deletedIds.size());
+        report.setComments(report.getComments() + chunk.dependents()[0]);
+        report.setRatings(report.getRatings() + chunk.dependents()[1]);
+        report.setBorrows(report.getBorrows() + chunk.dependents()[2]);
+        return chunk.lastId();
+    }
+
+    private record DeletedChunk(int lastId, List<DeletedBook> books, long[] dependents) {
+    }
+
+    private record DeletedBook(int id, String genre, Boolean isAvailable, int createdBy) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.daniellaera.backend.service.impl;
+
+import com.daniellaera.backend.dao.BookExportDTO;
+import com.daniellaera.backend.repository.BookRepository;
+import com.daniellaera.backend.service.BookExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the catalog as newline-delimited JSON, one book per line. Rows come from a
+ * server-side cursor (see {@link BookRepository#streamAllForExport()}) and are flat
+ * DTOs rather than entities, so nothing accumulates in the persistence context and
+ * heap use does not grow with the catalog.
+ */
+@Component
+@Slf4j
+public class BookExportServiceImpl implements BookExportService {
+
+    private static final byte NEWLINE = '\n';
+    private static final int FLUSH_INTERVAL = 1000;
+
+    private final BookRepository bookRepository;
+    private final ObjectWriter writer;
+
+    @Autowired
+    public BookExportServiceImpl(BookRepository bookRepository, JsonMapper jsonMapper) {
+        this.bookRepository = bookRepository;
+        this.writer = jsonMapper.writerFor(BookExportDTO.class);
+    }
+
+    // The PostgreSQL driver only honours the fetch size inside a transaction
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBooks(OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        long count = 0;
+
+        try (Stream<BookExportDTO> books = bookRepository.streamAllForExport()) {
+            Iterator<BookExportDTO> iterator = books.iterator();
+            while (iterator.hasNext()) {
+                out.write(writer.writeValueAsBytes(iterator.next()));
+                out.write(NEWLINE);
+                if (++count % FLUSH_INTERVAL == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+
+        log.info("Exported {} books in {} ms", count, System.currentTimeMillis() - start);
+        return count;
+    }
+}
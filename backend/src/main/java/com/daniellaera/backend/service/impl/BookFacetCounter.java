@@ -0,0 +1,93 @@
+package com.daniellaera.backend.service.impl;
+
+import com.daniellaera.backend.dao.BookFacetCount;
+import com.daniellaera.backend.dao.BookFacetsDTO;
+import com.daniellaera.backend.repository.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Book counts per genre and per availability state for the catalog sidebar filters.
+ * Counters are seeded from one GROUP BY query at startup and then adjusted by the
+ * write paths, so reading them never touches the database.
+ */
+@Component
+@Slf4j
+public class BookFacetCounter {
+
+    private final BookRepository bookRepository;
+
+    private volatile Map<String, AtomicLong> genreCounts = new ConcurrentHashMap<>();
+    private final AtomicLong availableCount = new AtomicLong();
+    private final AtomicLong unavailableCount = new AtomicLong();
+
+    @Autowired
+    public BookFacetCounter(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        Map<String, AtomicLong> genres = new ConcurrentHashMap<>();
+        long available = 0;
+        long unavailable = 0;
+
+        for (BookFacetCount row : bookRepository.countByGenreAndAvailability()) {
+            genres.computeIfAbsent(row.getGenre(), genre -> new AtomicLong()).addAndGet(row.getCount());
+            if (isAvailable(row.getIsAvailable())) {
+                available += row.getCount();
+            } else {
+                unavailable += row.getCount();
+            }
+        }
+
+        genreCounts = genres;
+        availableCount.set(available);
+        unavailableCount.set(unavailable);
+        log.info("Book facets rebuilt: {} genres, {} available, {} unavailable", genres.size(), available, unavailable);
+    }
+
+    public void bookAdded(String genre, Boolean isAvailable) {
+        genreCounts.computeIfAbsent(genre, key -> new AtomicLong()).incrementAndGet();
+        availabilityCounter(isAvailable).incrementAndGet();
+    }
+
+    public void bookRemoved(String genre, Boolean isAvailable) {
+        genreCounts.computeIfPresent(genre, (key, count) -> count.decrementAndGet() <= 0 ? null : count);
+        availabilityCounter(isAvailable).decrementAndGet();
+    }
+
+    /**
+     * Moves {@code count} books into the given availability state.
+     */
+    public void availabilityChanged(boolean nowAvailable, long count) {
+        if (count <= 0) {
+            return;
+        }
+        availabilityCounter(!nowAvailable).addAndGet(-count);
+        availabilityCounter(nowAvailable).addAndGet(count);
+    }
+
+    public BookFacetsDTO snapshot() {
+        Map<String, Long> genres = new TreeMap<>();
+        genreCounts.forEach((genre, count) -> genres.put(genre, count.get()));
+        return new BookFacetsDTO(genres, availableCount.get(), unavailableCount.get());
+    }
+
+    private AtomicLong availabilityCounter(Boolean isAvailable) {
+        return isAvailable(isAvailable) ? availableCount : unavailableCount;
+    }
+
+    // is_available defaults to true, a missing value is counted as available
+    private static boolean isAvailable(Boolean isAvailable) {
+        return !Boolean.FALSE.equals(isAvailable);
+    }
+}
@@ -0,0 +1,362 @@
+package com.daniellaera.backend.service.impl;
+
+import com.daniellaera.backend.dao.BookImportError;
+import com.daniellaera.backend.dao.BookImportReport;
+import com.daniellaera.backend.dao.BookImportRow;
+import com.daniellaera.backend.dao.BookSuggestion;
+import com.daniellaera.backend.model.User;
+import com.daniellaera.backend.properties.BookImportProperties;
+import com.daniellaera.backend.repository.UserRepository;
+import com.daniellaera.backend.service.BookImportService;
+import com.daniellaera.backend.utils.CsvReader;
+import com.daniellaera.backend.utils.IsbnUtils;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Loads books in bulk from a streamed CSV or NDJSON body. Rows are validated as they are
+ * read and inserted with plain JDBC batches, since {@code GenerationType.IDENTITY} on
+ * {@code Book} rules out Hibernate insert batching. Each batch commits on its own, so a
+ * bad batch never rolls back the rows imported before it.
+ */
+@Component
+@Slf4j
+public class BookImportServiceImpl implements BookImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final List<String> REQUIRED_COLUMNS = List.of("title", "isbn", "author", "genre", "publisheddate");
+
+    private static final String INSERT_BOOK =
+            "INSERT INTO _book (title, isbn, isbn13, description, author, genre, published_date, created_date, created_by, average_rating, is_available) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0.0, TRUE) " +
+            "ON CONFLICT (isbn13) DO NOTHING RETURNING id, isbn13";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final BookSuggestionIndex bookSuggestionIndex;
+    private final BookFacetCounter bookFacetCounter;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectReader rowReader;
+    private final BookImportProperties bookImportProperties;
+
+    @Autowired
+    public BookImportServiceImpl(JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 UserRepository userRepository,
+                                 BookSuggestionIndex bookSuggestionIndex,
+                                 BookFacetCounter bookFacetCounter,
+                                 EntityManagerFactory entityManagerFactory,
+                                 JsonMapper jsonMapper,
+                                 BookImportProperties bookImportProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.userRepository = userRepository;
+        this.bookSuggestionIndex = bookSuggestionIndex;
+        this.bookFacetCounter = bookFacetCounter;
+        this.entityManagerFactory = entityManagerFactory;
+        this.rowReader = jsonMapper.readerFor(BookImportRow.class);
+        this.bookImportProperties = bookImportProperties;
+    }
+
+    @Override
+    public BookImportReport importBooks(InputStream body, MediaType contentType, String userEmail) throws IOException {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userEmail));
+
+        long start = System.currentTimeMillis();
+        ImportRun run = new ImportRun(user.getId());
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+
+        if (TEXT_CSV.isCompatibleWith(contentType)) {
+            readCsv(reader, run);
+        } else if (MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+            readNdjson(reader, run);
+        } else {
+            throw new IllegalArgumentException("Unsupported import format: " + contentType);
+        }
+        run.flush();
+
+        // Rows went in through JDBC, so the creator's cached book collection is stale
+        entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class)
+                .evictCollectionData(User.class.getName() + ".books", user.getId());
+
+        BookImportReport report = run.toReport();
+        log.info("Imported {} of {} books for {} in {} ms ({} duplicates, {} failed)",
+                report.getImported(), report.getReceived(), userEmail, System.currentTimeMillis() - start,
+                report.getDuplicates(), report.getFailed());
+        return report;
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            return;
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).toLowerCase(Locale.ROOT).replaceAll("[^a-z]", ""), i);
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(column -> !columns.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("CSV header is missing columns: " + missing);
+        }
+
+        List<String> record;
+        while ((record = csv.readRecord()) != null) {
+            if (record.size() == 1 && record.getFirst().isBlank()) {
+                continue;
+            }
+            if (record.size() != header.size()) {
+                run.failed(csv.getRecordLineNumber(), null,
+                        "Expected " + header.size() + " fields but found " + record.size());
+                continue;
+            }
+            run.accept(csv.getRecordLineNumber(), new BookImportRow(
+                    field(record, columns, "title"),
+                    field(record, columns, "isbn"),
+                    field(record, columns, "description"),
+                    field(record, columns, "author"),
+                    field(record, columns, "genre"),
+                    field(record, columns, "publisheddate")
+            ));
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                BookImportRow row = rowReader.readValue(line);
+                // a literal null parses fine but is no book
+                if (row == null) {
+                    run.failed(lineNumber, null, "Expected a JSON object");
+                } else {
+                    run.accept(lineNumber, row);
+                }
+            } catch (JacksonException e) {
+                run.failed(lineNumber, null, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        return index != null ? record.get(index) : null;
+    }
+
+    private record PendingBook(int line, String isbnKey, BookImportRow row, LocalDate publishedDate) {
+    }
+
+    private record InsertedBook(Integer id, PendingBook pending) {
+    }
+
+    /**
+     * State of a single import: the batch being filled, the ISBNs already seen in this
+     * input, and the running report.
+     */
+    private class ImportRun {
+        private final Integer userId;
+        private final Set<String> seenIsbns = new HashSet<>();
+        private final List<PendingBook> batch = new ArrayList<>();
+        private final List<BookImportError> errors = new ArrayList<>();
+        private long received;
+        private long imported;
+        private long duplicates;
+        private long failed;
+
+        ImportRun(Integer userId) {
+            this.userId = userId;
+        }
+
+        void accept(int line, BookImportRow row) {
+            received++;
+            String error = validate(row);
+            if (error != null) {
+                failed++;
+                addError(line, row.getIsbn(), error);
+                return;
+            }
+
+            String isbnKey = IsbnUtils.toIsbn13(row.getIsbn());
+            if (!seenIsbns.add(isbnKey)) {
+                duplicate(line, row.getIsbn(), "Duplicate ISBN within the import");
+                return;
+            }
+
+            batch.add(new PendingBook(line, isbnKey, row, LocalDate.parse(row.getPublishedDate().trim())));
+            if (batch.size() >= bookImportProperties.getBatchSize()) {
+                flush();
+            }
+        }
+
+        void failed(int line, String isbn, String message) {
+            received++;
+            failed++;
+            addError(line, isbn, message);
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<PendingBook> pending = List.copyOf(batch);
+            batch.clear();
+
+            try {
+                List<InsertedBook> inserted = transactionTemplate.execute(status -> insert(pending));
+
+                imported += inserted.size();
+                Set<Integer> insertedLines = new HashSet<>();
+                for (InsertedBook book : inserted) {
+                    insertedLines.add(book.pending().line());
+                    BookImportRow row = book.pending().row();
+                    bookSuggestionIndex.add(new BookSuggestion(book.id(), row.getTitle().trim(), row.getAuthor().trim()));
+                    bookFacetCounter.bookAdded(row.getGenre().trim(), true);
+                }
+                pending.stream()
+                        .filter(book -> !insertedLines.contains(book.line()))
+                        .forEach(book -> duplicate(book.line(), book.row().getIsbn(), "ISBN already in the catalog"));
+            } catch (DataAccessException e) {
+                // the cause may carry SQL and values, so it goes to the log only
+                log.warn("Import batch of {} rows starting at line {} failed", pending.size(), pending.getFirst().line(), e);
+                failed += pending.size();
+                pending.forEach(book -> addError(book.line(), book.row().getIsbn(),
+                        "Batch insert failed, no row of this batch was imported"));
+            }
+        }
+
+        // Rows whose ISBN is already stored, even by a concurrent import, are skipped by uk_book_isbn13
+        // and return no key
+        private List<InsertedBook> insert(List<PendingBook> books) {
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+
+            jdbcTemplate.batchUpdate(
+                    connection -> connection.prepareStatement(INSERT_BOOK, new String[]{"id", "isbn13"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            BookImportRow row = books.get(i).row();
+                            ps.setString(1, row.getTitle().trim());
+                            ps.setString(2, row.getIsbn().trim());
+                            ps.setString(3, books.get(i).isbnKey());
+                            ps.setString(4, row.getDescription() == null || row.getDescription().isBlank() ? null : row.getDescription());
+                            ps.setString(5, row.getAuthor().trim());
+                            ps.setString(6, row.getGenre().trim());
+                            ps.setObject(7, books.get(i).publishedDate());
+                            ps.setTimestamp(8, now);
+                            ps.setInt(9, userId);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return books.size();
+                        }
+                    },
+                    keyHolder);
+
+            // ISBNs are unique within a batch, so the returned isbn13 tells which row each key belongs to
+            Map<String, PendingBook> byIsbn = new HashMap<>();
+            books.forEach(book -> byIsbn.put(book.isbnKey(), book));
+            List<InsertedBook> inserted = new ArrayList<>();
+            for (Map<String, Object> key : keyHolder.getKeyList()) {
+                inserted.add(new InsertedBook(((Number) key.get("id")).intValue(), byIsbn.get((String) key.get("isbn13"))));
+            }
+            return inserted;
+        }
+
+        private void duplicate(int line, String isbn, String message) {
+            duplicates++;
+            addError(line, isbn, message);
+        }
+
+        private void addError(int line, String isbn, String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new BookImportError(line, isbn, message));
+            }
+        }
+
+        BookImportReport toReport() {
+            return new BookImportReport(received, imported, duplicates, failed, errors);
+        }
+    }
+
+    // Mirrors the _book column constraints so bad rows are reported instead of failing a batch
+    private static String validate(BookImportRow row) {
+        if (isBlank(row.getTitle())) {
+            return "Title is required";
+        }
+        if (row.getTitle().trim().length() > 255) {
+            return "Title exceeds 255 characters";
+        }
+        if (isBlank(row.getAuthor())) {
+            return "Author is required";
+        }
+        if (row.getAuthor().trim().length() > 255) {
+            return "Author exceeds 255 characters";
+        }
+        if (isBlank(row.getGenre())) {
+            return "Genre is required";
+        }
+        if (row.getGenre().trim().length() > 50) {
+            return "Genre exceeds 50 characters";
+        }
+        if (isBlank(row.getIsbn())) {
+            return "ISBN is required";
+        }
+        if (row.getIsbn().trim().length() > 17) {
+            return "ISBN exceeds 17 characters";
+        }
+        try {
+            IsbnUtils.toIsbn13(row.getIsbn());
+        } catch (IllegalArgumentException e) {
+            return "ISBN must be a valid ISBN-10 or ISBN-13";
+        }
+        if (isBlank(row.getPublishedDate())) {
+            return "Published date is required";
+        }
+        try {
+            LocalDate.parse(row.getPublishedDate().trim());
+        } catch (DateTimeParseException e) {
+            return "Published date must be formatted as yyyy-MM-dd";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
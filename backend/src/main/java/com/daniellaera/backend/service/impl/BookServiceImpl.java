@@ -1,50 +1,198 @@
 package com.daniellaera.backend.service.impl;
 
 import com.daniellaera.backend.dao.*;
+import com.daniellaera.backend.exception.DuplicateIsbnException;
 import com.daniellaera.backend.model.*;
+import com.daniellaera.backend.properties.BookSimilarityProperties;
+import com.daniellaera.backend.properties.BookTrendingProperties;
 import com.daniellaera.backend.repository.BookRepository;
 import com.daniellaera.backend.repository.UserRepository;
 import com.daniellaera.backend.service.BookService;
+import com.daniellaera.backend.utils.CursorCodec;
+import com.daniellaera.backend.utils.IsbnUtils;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
-import java.time.ZoneId;
-import java.util.Date;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 @Component
 @Slf4j
 public class BookServiceImpl implements BookService {
 
+    private static final int MAX_SCROLL_SIZE = 100;
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final Set<BookExpansion> ALL_EXPANSIONS = Collections.unmodifiableSet(EnumSet.allOf(BookExpansion.class));
+    private static final String ISBN13_CONSTRAINT = "uk_book_isbn13";
+
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
-    private final BorrowRepository borrowRepository;
+    private final BookSuggestionIndex bookSuggestionIndex;
+    private final BookFacetCounter bookFacetCounter;
+    private final BookSimilarityIndex bookSimilarityIndex;
+    private final BookSimilarityProperties bookSimilarityProperties;
+    private final BookTrendingTracker bookTrendingTracker;
+    private final BookTrendingProperties bookTrendingProperties;
 
     @Autowired
     public BookServiceImpl(BookRepository bookRepository,
                            UserRepository userRepository,
-                           BorrowRepository borrowRepository) {
+                           BookSuggestionIndex bookSuggestionIndex,
+                           BookFacetCounter bookFacetCounter,
+                           BookSimilarityIndex bookSimilarityIndex,
+                           BookSimilarityProperties bookSimilarityProperties,
+                           BookTrendingTracker bookTrendingTracker,
+                           BookTrendingProperties bookTrendingProperties) {
         this.bookRepository = bookRepository;
         this.userRepository = userRepository;
-        this.borrowRepository = borrowRepository;
+        this.bookSuggestionIndex = bookSuggestionIndex;
+        this.bookFacetCounter = bookFacetCounter;
+        this.bookSimilarityIndex = bookSimilarityIndex;
+        this.bookSimilarityProperties = bookSimilarityProperties;
+        this.bookTrendingTracker = bookTrendingTracker;
+        this.bookTrendingProperties = bookTrendingProperties;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<BookDTO> getAllBooks(Pageable pageable) {
-        return bookRepository.findAll(pageable)
-                .map(this::convertBookEntityToBookDto);
+        return getAllBooks(pageable, ALL_EXPANSIONS);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<BookDTO> getAllBooks(Pageable pageable, Set<BookExpansion> expansions) {
+        return bookRepository.findAll(BookSort.resolve(pageable))
+                .map(book -> convertBookEntityToBookDto(book, expansions));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<BookSummary> getBookSummaries(Pageable pageable) {
+        return bookRepository.findAllSummaries(BookSort.resolve(pageable));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<BookSummary> scrollBookSummaries(String cursor, int size) {
+        int pageSize = Math.clamp(size, 1, MAX_SCROLL_SIZE);
+        // fetch one extra row to know whether another page follows, without a COUNT(*)
+        PageRequest limit = PageRequest.ofSize(pageSize + 1);
+
+        List<BookSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = bookRepository.findFirstSummariesOrderByTitle(limit);
+        } else {
+            CursorCodec.Cursor position = CursorCodec.decode(cursor);
+            rows = bookRepository.findSummariesAfterTitle(position.key(), position.id(), limit);
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        List<BookSummary> content = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            BookSummary last = content.getLast();
+            nextCursor = CursorCodec.encode(last.getTitle(), last.getId());
+        }
+
+        return new CursorPage<>(content, nextCursor, hasNext);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<BookSummary> searchBooks(String query, Pageable pageable) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        // results are ordered by relevance, so any client supplied sort is ignored
+        return bookRepository.searchSummaries(query.trim(), PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+    }
+
+    @Override
+    public List<BookSuggestion> suggestBooks(String prefix, int limit) {
+        return bookSuggestionIndex.suggest(prefix, Math.clamp(limit, 1, MAX_SUGGESTIONS));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<List<BookSummary>> findSimilarBooks(Integer bookId, int limit) {
+        int[] similarIds = bookSimilarityIndex.similarTo(bookId, Math.clamp(limit, 1, bookSimilarityProperties.getNeighbours()));
+        if (similarIds.length == 0) {
+            return bookRepository.existsById(bookId) ? Optional.of(List.of()) : Optional.empty();
+        }
+        // books deleted since the last rebuild are simply skipped
+        return Optional.of(findSummariesInOrder(Arrays.stream(similarIds).boxed().toList()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookSummary> getTrendingBooks(int limit) {
+        List<Integer> trendingIds = bookTrendingTracker.trending(Math.clamp(limit, 1, bookTrendingProperties.getSize()));
+        return trendingIds.isEmpty() ? List.of() : findSummariesInOrder(trendingIds);
+    }
+
+    private List<BookSummary> findSummariesInOrder(List<Integer> bookIds) {
+        Map<Integer, BookSummary> summaries = new HashMap<>();
+        bookRepository.findSummariesByIdIn(bookIds).forEach(summary -> summaries.put(summary.getId(), summary));
+        return bookIds.stream()
+                .map(summaries::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public BookFacetsDTO getFacets() {
+        return bookFacetCounter.snapshot();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<BookDTO> findBookById(Integer bookId) {
-        return bookRepository.findById(bookId).map(this::convertBookEntityToBookDto);
+        return findBookById(bookId, ALL_EXPANSIONS);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<BookDTO> findBookById(Integer bookId, Set<BookExpansion> expansions) {
+        Optional<Book> book = expansions.contains(BookExpansion.COMMENTS)
+                ? bookRepository.findDetailedById(bookId)
+                : bookRepository.findWithCreatorById(bookId);
+        return book.map(found -> convertBookEntityToBookDto(found, expansions));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<BookDTO> findBookByIsbn(String isbn) {
+        return bookRepository.findByIsbn13(IsbnUtils.toIsbn13(isbn))
+                .map(found -> convertBookEntityToBookDto(found, ALL_EXPANSIONS));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<BookVersion> findBookVersion(Integer bookId) {
+        return bookRepository.findVersionById(bookId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CatalogVersion getCatalogVersion() {
+        return bookRepository.findCatalogVersion();
     }
 
     @Override
@@ -60,9 +208,21 @@ public class BookServiceImpl implements BookService {
         Book book = convertBookDTOToBookEntity(bookDTO);
         book.setCreatedBy(user);
 
-        Book savedBook = bookRepository.save(book);
+        Book savedBook;
+        try {
+            savedBook = bookRepository.save(book);
+        } catch (DataIntegrityViolationException e) {
+            if (e.getCause() instanceof ConstraintViolationException violation
+                    && ISBN13_CONSTRAINT.equals(violation.getConstraintName())) {
+                log.warn("Rejected duplicate ISBN: {}", bookDTO.getIsbn());
+                throw new DuplicateIsbnException(bookDTO.getIsbn(), e);
+            }
+            throw e;
+        }
+        bookSuggestionIndex.add(new BookSuggestion(savedBook.getId(), savedBook.getTitle(), savedBook.getAuthor()));
+        bookFacetCounter.bookAdded(savedBook.getGenre(), savedBook.getIsAvailable());
 
-        return convertBookEntityToBookDto(savedBook);
+        return convertBookEntityToBookDto(savedBook, ALL_EXPANSIONS);
     }
 
     @Override
@@ -72,47 +232,21 @@ public class BookServiceImpl implements BookService {
             return new EntityNotFoundException("Book not found with id: " + bookId);
         });
         bookRepository.delete(book);
+        bookSuggestionIndex.remove(bookId);
+        bookFacetCounter.bookRemoved(book.getGenre(), book.getIsAvailable());
+        bookTrendingTracker.remove(bookId);
         log.info("Book with id: {} deleted", bookId);
     }
 
     @Override
-    public void updateExpiredBookStatus() {
-        // Convert LocalDate.now() to Date for compatibility
-        Date currentDate = Date.from(LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant());
-
-        // Fetch only books with borrow end date before the current date AND isAvailable = false
-        List<Book> expiredBorrowBooks = bookRepository.findByBorrows_BorrowEndDateBeforeAndIsAvailableFalse(currentDate);
-
-        // Check if there are any expired books
-        if (expiredBorrowBooks.isEmpty()) {
-            log.info("No expired books to update.");
-            return;
-        }
-
-        // Update the status of each expired borrow in those books
-        for (Book book : expiredBorrowBooks) {
-            List<Borrow> borrows = book.getBorrows();
-
-            // Find the active borrow (if any) that has expired
-            Borrow activeBorrow = borrows
-                    .stream()
-                    .filter(brw -> brw.getBorrowEndDate().before(currentDate) && !brw.getIsReturned())
-                    .findFirst()
-                    .orElse(null);
-
-            if (activeBorrow != null) {
-                log.debug("Updating book with ID: {} and borrow with ID: {}", book.getId(), activeBorrow.getId());
-                // Mark borrow as returned and book as available
-                activeBorrow.setIsReturned(true);
-                book.setIsAvailable(true);
-
-                // Save changes to both borrow and book
-                borrowRepository.save(activeBorrow);
-                bookRepository.save(book);
-            }
+    public int reconcileCounters() {
+        int reconciled = bookRepository.reconcileCounters();
+        if (reconciled > 0) {
+            log.warn("Reconciled comment and rating counters of {} books", reconciled);
+        } else {
+            log.info("Comment and rating counters are consistent");
         }
-
-        log.info("Updated {} books to available.", expiredBorrowBooks.size());
+        return reconciled;
     }
 
     private Book convertBookDTOToBookEntity(BookDTO bookDTO) {
@@ -132,6 +266,10 @@ public class BookServiceImpl implements BookService {
         book.setAuthor(bookDTO.getAuthor());
         book.setTitle(bookDTO.getTitle());
         book.setIsbn(bookDTO.getIsbn());
+        // Books without an ISBN are still accepted, a malformed one is not
+        if (bookDTO.getIsbn() != null && !bookDTO.getIsbn().isBlank()) {
+            book.setIsbn13(IsbnUtils.toIsbn13(bookDTO.getIsbn()));
+        }
         book.setGenre(bookDTO.getGenre());
         book.setDescription(bookDTO.getDescription());
         book.setPublishedDate(bookDTO.getPublishedDate());
@@ -146,44 +284,46 @@ public class BookServiceImpl implements BookService {
         return comment;
     }
 
-    private BookDTO convertBookEntityToBookDto(Book book) {
+    private BookDTO convertBookEntityToBookDto(Book book, Set<BookExpansion> expansions) {
         BookDTO bookDto = new BookDTO();
         bookDto.setId(book.getId());
         bookDto.setDescription(book.getDescription());
         bookDto.setTitle(book.getTitle());
         bookDto.setIsbn(book.getIsbn());
+        bookDto.setIsbn13(book.getIsbn13());
         bookDto.setAuthor(book.getAuthor());
         bookDto.setGenre(book.getGenre());
         bookDto.setCreatedDate(book.getCreatedDate());
         bookDto.setPublishedDate(book.getPublishedDate());
 
         // comments
-        List<CommentDTO> commentDTOList = (book.getComments() != null) ? book.getComments()
-                        .stream()
-                        .map(this::convertCommentToCommentDTO)
-                        .toList() : List.of();
+        if (expansions.contains(BookExpansion.COMMENTS)) {
+            List<CommentDTO> commentDTOList = (book.getComments() != null) ? book.getComments()
+                            .stream()
+                            .map(this::convertCommentToCommentDTO)
+                            .toList() : List.of();
+            bookDto.setComments(commentDTOList);
+        }
 
         // ratings
-        List<RatingDTO> ratingDTOList = (book.getRatings() != null) ? book.getRatings()
-                        .stream()
-                        .map(this::convertRatingToRatingDTO)
-                        .toList() : List.of();
+        if (expansions.contains(BookExpansion.RATINGS)) {
+            List<RatingDTO> ratingDTOList = (book.getRatings() != null) ? book.getRatings()
+                            .stream()
+                            .map(this::convertRatingToRatingDTO)
+                            .toList() : List.of();
+            bookDto.setRatings(ratingDTOList);
+        }
 
         // borrow
-        BorrowDTO borrowDTO = Optional.ofNullable(book.getBorrows())
-                .orElse(List.of()) // Provide an empty list if `null`
-                .stream()
-                .filter(brw -> Boolean.FALSE.equals(brw.getIsReturned()))
-                .findFirst()
-                .map(this::convertBorrowEntityToBorrowDTO)
-                .orElse(null);
-
-        // BorrowDTO borrowDTO = (book.getBorrow() != null) ? convertBorrowEntityToBorrowDTO(book.getBorrow()) : null;
-        bookDto.setBorrow(borrowDTO);
+        if (expansions.contains(BookExpansion.BORROW)) {
+            // the pointer is read instead of the borrow history, whatever its length
+            BorrowDTO borrowDTO = book.getCurrentBorrow() != null ? convertBorrowEntityToBorrowDTO(book.getCurrentBorrow()) : null;
+            bookDto.setBorrow(borrowDTO);
+        }
 
-        bookDto.setComments(commentDTOList);
-        bookDto.setRatings(ratingDTOList);
         bookDto.setAverageRating(book.getAverageRating());
+        bookDto.setCommentCount(book.getCommentCount());
+        bookDto.setRatingCount(book.getRatingCount());
 
         UserDTO userDto = new UserDTO();
         userDto.setId(book.getCreatedBy().getId());
@@ -0,0 +1,81 @@
+package com.daniellaera.backend.service.impl;
+
+import com.daniellaera.backend.properties.BookSimilarityProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the "similar books" matrix built from _rating by {@code BookSimilarityJob}.
+ * Lookups only read the current matrix; a rebuild computes a new one off to the side
+ * and swaps it in at the end, so readers never see a half-built matrix.
+ */
+@Component
+@Slf4j
+public class BookSimilarityIndex {
+
+    private static final String SELECT_BOOK_IDS = "SELECT id FROM _book ORDER BY id";
+    private static final String COUNT_RATINGS = "SELECT count(*) FROM _rating";
+    // The most recent raters of each book, at most max-raters-per-book, regrouped by user for the builder.
+    // The window reads idx_rating_book_recency in order; the regrouping is a sort in PostgreSQL, which
+    // spills it to disk rather than holding _rating in the heap
+    private static final String SELECT_RATINGS =
+            "SELECT user_id, book_id, score FROM (" +
+            "SELECT user_id, book_id, score, id, row_number() OVER (PARTITION BY book_id ORDER BY id DESC) AS recency " +
+            "FROM _rating) r " +
+            "WHERE recency <= ? ORDER BY user_id, book_id, id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final BookSimilarityProperties bookSimilarityProperties;
+
+    private final AtomicReference<BookSimilarityMatrix> matrix = new AtomicReference<>(BookSimilarityMatrix.EMPTY);
+
+    @Autowired
+    public BookSimilarityIndex(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               BookSimilarityProperties bookSimilarityProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.bookSimilarityProperties = bookSimilarityProperties;
+    }
+
+    public int[] similarTo(Integer bookId, int limit) {
+        return matrix.get().neighboursOf(bookId, limit);
+    }
+
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        // PostgreSQL only honours the fetch size inside a transaction, otherwise the whole result is buffered
+        BookSimilarityMatrix.Builder builder = readOnlyTransaction.execute(status -> {
+            int[] bookIds = jdbcTemplate.queryForList(SELECT_BOOK_IDS, Integer.class).stream()
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            Long ratings = jdbcTemplate.queryForObject(COUNT_RATINGS, Long.class);
+            BookSimilarityMatrix.Builder ratingsBuilder = new BookSimilarityMatrix.Builder(bookIds,
+                    (int) Math.min(ratings == null ? 0 : ratings, Integer.MAX_VALUE - 8),
+                    bookSimilarityProperties.getMaxRatingsPerUser(),
+                    bookSimilarityProperties.getMaxRatersPerBook());
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(SELECT_RATINGS);
+                statement.setInt(1, bookSimilarityProperties.getMaxRatersPerBook());
+                statement.setFetchSize(bookSimilarityProperties.getFetchSize());
+                return statement;
+            }, resultSet -> {
+                ratingsBuilder.add(resultSet.getInt(1), resultSet.getInt(2), resultSet.getFloat(3));
+            });
+            return ratingsBuilder;
+        });
+        BookSimilarityMatrix built = builder.build(bookSimilarityProperties.getNeighbours(), bookSimilarityProperties.getMinCoRatings());
+        matrix.set(built);
+        log.info("Similarity matrix built for {} books with {} neighbours in {} ms",
+                built.bookCount(), built.neighbourCount(), System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,317 @@
+package com.daniellaera.backend.service.impl;
+
+import java.util.Arrays;
+
+/**
+ * Immutable top-K item-item cosine similarities, stored as CSR arrays: the neighbours of
+ * bookIds[i] are neighbourIds[offsets[i]..offsets[i + 1]), most similar first.
+ * Built once by {@link Builder} and then only read, so it can be shared between threads.
+ */
+public final class BookSimilarityMatrix {
+
+    static final BookSimilarityMatrix EMPTY = new BookSimilarityMatrix(new int[0], new int[1], new int[0], new float[0]);
+
+    private final int[] bookIds;
+    private final int[] offsets;
+    private final int[] neighbourIds;
+    private final float[] similarities;
+
+    private BookSimilarityMatrix(int[] bookIds, int[] offsets, int[] neighbourIds, float[] similarities) {
+        this.bookIds = bookIds;
+        this.offsets = offsets;
+        this.neighbourIds = neighbourIds;
+        this.similarities = similarities;
+    }
+
+    /**
+     * Ids of the books most similar to the given one, best first; empty when the book is
+     * unknown or shares no raters with any other book.
+     */
+    public int[] neighboursOf(int bookId, int limit) {
+        int row = Arrays.binarySearch(bookIds, bookId);
+        if (row < 0 || limit <= 0) {
+            return new int[0];
+        }
+        int from = offsets[row];
+        return Arrays.copyOfRange(neighbourIds, from, Math.min(offsets[row + 1], from + limit));
+    }
+
+    public float[] similaritiesOf(int bookId, int limit) {
+        int row = Arrays.binarySearch(bookIds, bookId);
+        if (row < 0 || limit <= 0) {
+            return new float[0];
+        }
+        int from = offsets[row];
+        return Arrays.copyOfRange(similarities, from, Math.min(offsets[row + 1], from + limit));
+    }
+
+    public int bookCount() {
+        return bookIds.length;
+    }
+
+    public int neighbourCount() {
+        return neighbourIds.length;
+    }
+
+    /**
+     * Accumulates ratings streamed in (user_id, book_id) order and computes the matrix.
+     * <p>
+     * Memory is linear in the number of ratings kept: the ratings are held twice (user-major and
+     * book-major, an int and a float each, about 16 bytes per rating) plus a few arrays sized
+     * by the catalog. At most maxRatersPerBook ratings are kept per book, so the whole build is
+     * bounded by books x maxRatersPerBook ratings however large _rating grows. Pairs of books are
+     * never materialized: each book's row is accumulated in a dense scratch array, reduced to its
+     * top K and the scratch array is reset for the next book.
+     */
+    public static final class Builder {
+
+        private final int[] bookIds;
+        private final int maxRatingsPerUser;
+        private final int maxRatersPerBook;
+        // raters kept so far per book, including the run of the current user
+        private final int[] raters;
+
+        // user-major CSR: ratings of user u are items/scores[userOffsets[u]..userOffsets[u + 1])
+        private int[] items;
+        private float[] scores;
+        private int size;
+        private int[] userOffsets = new int[1024];
+        private int users;
+
+        private int currentUser;
+        private boolean hasUser;
+        private int runStart;
+
+        /**
+         * @param bookIds           ids of the catalog, ratings of other books are ignored
+         * @param expectedRatings   initial capacity, usually count(*) of _rating
+         * @param maxRatingsPerUser users with more ratings are left out; their cost is quadratic
+         *                          in that number and they say little about any pair of books
+         * @param maxRatersPerBook  ratings of a book beyond this many raters are ignored, the
+         *                          caller streams the ones to keep first
+         */
+        public Builder(int[] bookIds, int expectedRatings, int maxRatingsPerUser, int maxRatersPerBook) {
+            this.bookIds = bookIds.clone();
+            Arrays.sort(this.bookIds);
+            this.maxRatingsPerUser = maxRatingsPerUser;
+            this.maxRatersPerBook = maxRatersPerBook;
+            this.raters = new int[this.bookIds.length];
+            this.items = new int[(int) Math.max(Math.min(expectedRatings, this.bookIds.length * (long) maxRatersPerBook), 16)];
+            this.scores = new float[items.length];
+        }
+
+        /**
+         * Ratings must arrive grouped by user and, within a user, ordered by book, so that a
+         * repeated rating of the same book overwrites the previous one.
+         */
+        public void add(int userId, int bookId, float score) {
+            int item = Arrays.binarySearch(bookIds, bookId);
+            if (item < 0) {
+                return;
+            }
+            if (!hasUser || userId != currentUser) {
+                closeRun();
+                currentUser = userId;
+                hasUser = true;
+            }
+            if (size > runStart && items[size - 1] == item) {
+                scores[size - 1] = score;
+                return;
+            }
+            if (raters[item] >= maxRatersPerBook) {
+                return;
+            }
+            raters[item]++;
+            if (size == items.length) {
+                int capacity = items.length + (items.length >> 1);
+                items = Arrays.copyOf(items, capacity);
+                scores = Arrays.copyOf(scores, capacity);
+            }
+            items[size] = item;
+            scores[size] = score;
+            size++;
+        }
+
+        private void closeRun() {
+            if (size - runStart > maxRatingsPerUser) {
+                for (int i = runStart; i < size; i++) {
+                    raters[items[i]]--;
+                }
+                size = runStart;
+            } else if (size > runStart) {
+                if (users + 1 == userOffsets.length) {
+                    userOffsets = Arrays.copyOf(userOffsets, userOffsets.length * 2);
+                }
+                userOffsets[++users] = size;
+            }
+            runStart = size;
+        }
+
+        /**
+         * @param neighbours   K, the number of neighbours kept per book
+         * @param minCoRatings pairs rated together by fewer users are ignored
+         */
+        public BookSimilarityMatrix build(int neighbours, int minCoRatings) {
+            closeRun();
+            int bookCount = bookIds.length;
+
+            // book-major copy of the same ratings: users[itemOffsets[b]..itemOffsets[b + 1]) rated b
+            int[] itemOffsets = new int[bookCount + 1];
+            for (int i = 0; i < size; i++) {
+                itemOffsets[items[i] + 1]++;
+            }
+            for (int b = 0; b < bookCount; b++) {
+                itemOffsets[b + 1] += itemOffsets[b];
+            }
+            int[] itemUsers = new int[size];
+            float[] itemScores = new float[size];
+            int[] cursor = Arrays.copyOf(itemOffsets, bookCount);
+            float[] norms = new float[bookCount];
+            for (int u = 0; u < users; u++) {
+                for (int i = userOffsets[u]; i < userOffsets[u + 1]; i++) {
+                    int position = cursor[items[i]]++;
+                    itemUsers[position] = u;
+                    itemScores[position] = scores[i];
+                    norms[items[i]] += scores[i] * scores[i];
+                }
+            }
+            for (int b = 0; b < bookCount; b++) {
+                norms[b] = (float) Math.sqrt(norms[b]);
+            }
+
+            float[] dot = new float[bookCount];
+            int[] coRatings = new int[bookCount];
+            int[] touched = new int[bookCount];
+            TopK top = new TopK(neighbours);
+
+            int[] offsets = new int[bookCount + 1];
+            int[] neighbourIds = new int[Math.min(bookCount * neighbours, 1024)];
+            float[] similarities = new float[neighbourIds.length];
+            int neighbourCount = 0;
+
+            for (int a = 0; a < bookCount; a++) {
+                int touchedCount = 0;
+                for (int p = itemOffsets[a]; p < itemOffsets[a + 1]; p++) {
+                    int u = itemUsers[p];
+                    float scoreA = itemScores[p];
+                    for (int q = userOffsets[u]; q < userOffsets[u + 1]; q++) {
+                        int b = items[q];
+                        if (b == a) {
+                            continue;
+                        }
+                        if (coRatings[b]++ == 0) {
+                            touched[touchedCount++] = b;
+                        }
+                        dot[b] += scoreA * scores[q];
+                    }
+                }
+
+                top.clear();
+                for (int t = 0; t < touchedCount; t++) {
+                    int b = touched[t];
+                    if (coRatings[b] >= minCoRatings) {
+                        top.offer(b, dot[b] / (norms[a] * norms[b]));
+                    }
+                    dot[b] = 0f;
+                    coRatings[b] = 0;
+                }
+
+                if (neighbourCount + top.size > neighbourIds.length) {
+                    int capacity = Math.max(neighbourCount + top.size, neighbourIds.length * 2);
+                    neighbourIds = Arrays.copyOf(neighbourIds, capacity);
+                    similarities = Arrays.copyOf(similarities, capacity);
+                }
+                neighbourCount = top.drainDescending(bookIds, neighbourIds, similarities, neighbourCount);
+                offsets[a + 1] = neighbourCount;
+            }
+
+            return new BookSimilarityMatrix(bookIds, offsets,
+                    Arrays.copyOf(neighbourIds, neighbourCount), Arrays.copyOf(similarities, neighbourCount));
+        }
+    }
+
+    // Bounded min-heap on primitive arrays, the weakest kept neighbour sits at the root
+    private static final class TopK {
+
+        private final int[] items;
+        private final float[] values;
+        private int size;
+
+        TopK(int capacity) {
+            items = new int[capacity];
+            values = new float[capacity];
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        void offer(int item, float value) {
+            if (size < items.length) {
+                items[size] = item;
+                values[size] = value;
+                siftUp(size++);
+            } else if (items.length > 0 && value > values[0]) {
+                items[0] = item;
+                values[0] = value;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Empties the heap into the target arrays starting at {@code from}, best first,
+         * mapping dense indexes back to book ids. Returns the new end position.
+         */
+        int drainDescending(int[] bookIds, int[] targetIds, float[] targetValues, int from) {
+            int end = from + size;
+            for (int position = end - 1; position >= from; position--) {
+                targetIds[position] = bookIds[items[0]];
+                targetValues[position] = values[0];
+                size--;
+                items[0] = items[size];
+                values[0] = values[size];
+                siftDown(0);
+            }
+            return end;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >> 1;
+                if (values[parent] <= values[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && values[left] < values[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && values[right] < values[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int i, int j) {
+            int item = items[i];
+            items[i] = items[j];
+            items[j] = item;
+            float value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+}
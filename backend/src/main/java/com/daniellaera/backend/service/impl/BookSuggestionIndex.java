@@ -0,0 +1,144 @@
+package com.daniellaera.backend.service.impl;
+
+import com.daniellaera.backend.dao.BookSuggestion;
+import com.daniellaera.backend.repository.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-process prefix index over title and author tokens, used for typeahead.
+ * Tokens are kept in a sorted map, so a prefix lookup is a range scan over
+ * [prefix, prefix + Character.MAX_VALUE) and never reaches the database.
+ */
+@Component
+@Slf4j
+public class BookSuggestionIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{Alnum}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final BookRepository bookRepository;
+
+    private final ConcurrentSkipListMap<String, Set<Integer>> bookIdsByToken = new ConcurrentSkipListMap<>();
+    private final Map<Integer, IndexedBook> booksById = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BookSuggestionIndex(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        bookIdsByToken.clear();
+        booksById.clear();
+        bookRepository.findAllSuggestions().forEach(this::add);
+        log.info("Suggestion index built with {} books and {} tokens", booksById.size(), bookIdsByToken.size());
+    }
+
+    public void add(BookSuggestion book) {
+        IndexedBook indexed = new IndexedBook(book, normalize(book.getTitle()), tokensOf(book));
+        booksById.put(book.getId(), indexed);
+        for (String token : indexed.tokens()) {
+            bookIdsByToken.computeIfAbsent(token, key -> ConcurrentHashMap.newKeySet()).add(book.getId());
+        }
+    }
+
+    public void remove(Integer bookId) {
+        IndexedBook book = booksById.remove(bookId);
+        if (book == null) {
+            return;
+        }
+        for (String token : book.tokens()) {
+            bookIdsByToken.computeIfPresent(token, (key, ids) -> {
+                ids.remove(bookId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    /**
+     * Every token of the query has to be the prefix of a title or author token,
+     * e.g. "eff jav" matches "Effective Java".
+     */
+    public List<BookSuggestion> suggest(String prefix, int limit) {
+        List<String> queryTokens = tokenize(prefix);
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        String normalizedQuery = normalize(prefix);
+        Comparator<IndexedBook> ranking = Comparator
+                .comparing((IndexedBook book) -> !book.normalizedTitle().startsWith(normalizedQuery))
+                .thenComparing(book -> book.book().getTitle(), String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(book -> book.book().getId());
+
+        // the longest token is usually the most selective one, use it to collect candidates; every match
+        // in its range is ranked, but only the best `limit` are kept, the worst of them on top of the heap
+        String seed = queryTokens.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+        Set<Integer> seen = new HashSet<>();
+        PriorityQueue<IndexedBook> best = new PriorityQueue<>(ranking.reversed());
+        for (Set<Integer> ids : bookIdsByToken.subMap(seed, seed + Character.MAX_VALUE).values()) {
+            for (Integer id : ids) {
+                if (!seen.add(id)) {
+                    continue;
+                }
+                IndexedBook book = booksById.get(id);
+                if (book == null || !matchesAll(book.tokens(), queryTokens)) {
+                    continue;
+                }
+                if (best.size() < limit) {
+                    best.add(book);
+                } else if (ranking.compare(book, best.peek()) < 0) {
+                    best.poll();
+                    best.add(book);
+                }
+            }
+        }
+
+        return best.stream()
+                .sorted(ranking)
+                .map(IndexedBook::book)
+                .toList();
+    }
+
+    // Normalized title and tokens are computed once here instead of on every keystroke
+    private record IndexedBook(BookSuggestion book, String normalizedTitle, Set<String> tokens) {
+    }
+
+    private static boolean matchesAll(Set<String> bookTokens, List<String> queryTokens) {
+        return queryTokens.stream()
+                .allMatch(queryToken -> bookTokens.stream().anyMatch(token -> token.startsWith(queryToken)));
+    }
+
+    private static Set<String> tokensOf(BookSuggestion book) {
+        Set<String> tokens = new HashSet<>(tokenize(book.getTitle()));
+        tokens.addAll(tokenize(book.getAuthor()));
+        return tokens;
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(normalize(text)))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String withoutAccents = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return withoutAccents.toLowerCase(Locale.ROOT).trim();
+    }
+}
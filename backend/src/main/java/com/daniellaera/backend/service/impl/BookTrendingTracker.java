@@ -0,0 +1,248 @@
+package com.daniellaera.backend.service.impl;
+
+import com.daniellaera.backend.properties.BookTrendingProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Exponentially time-decayed activity score per book, for the trending leaderboard.
+ * <p>
+ * Scores use forward decay: an event at time t adds weight * e^(λ(t - landmark)) instead of
+ * decaying every stored score as time passes. The order between books never changes while no
+ * events arrive, so the top N only has to be touched when a score grows. The landmark is moved
+ * forward (and every score rescaled) on each snapshot, which keeps the exponent small.
+ * <p>
+ * Scores are snapshotted to _book_trending by {@code BookTrendingSnapshotJob} and reloaded at
+ * startup, so a restart does not reset the leaderboard.
+ */
+@Component
+@Slf4j
+public class BookTrendingTracker {
+
+    public enum Signal {
+        BORROW(3), RATING(2), COMMENT(1);
+
+        private final double weight;
+
+        Signal(double weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static final String SELECT_SNAPSHOT = "SELECT book_id, score, updated_at FROM _book_trending";
+    // The EXISTS guard skips books deleted since their last event instead of failing the whole batch
+    private static final String UPSERT_SNAPSHOT =
+            "INSERT INTO _book_trending (book_id, score, updated_at) " +
+            "SELECT ?, ?, ? WHERE EXISTS (SELECT 1 FROM _book WHERE id = ?) " +
+            "ON CONFLICT (book_id) DO UPDATE SET score = EXCLUDED.score, updated_at = EXCLUDED.updated_at";
+    private static final String DELETE_STALE = "DELETE FROM _book_trending WHERE updated_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookTrendingProperties bookTrendingProperties;
+    private final LongSupplier clock;
+    private final double lambda;
+
+    private final Map<Integer, Double> scores = new ConcurrentHashMap<>();
+    // events add under the read lock, rebasing the landmark takes the write lock
+    private final ReadWriteLock landmarkLock = new ReentrantReadWriteLock();
+    private volatile long landmark;
+    // nothing is written before the previous snapshot has been read back
+    private volatile boolean restored;
+
+    // top N, best first; guarded by this, published to readers through the volatile list
+    private final int[] topIds;
+    private final double[] topScores;
+    private int topSize;
+    private volatile double threshold;
+    private volatile List<Integer> trending = List.of();
+
+    @Autowired
+    public BookTrendingTracker(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               BookTrendingProperties bookTrendingProperties) {
+        this(jdbcTemplate, transactionTemplate, bookTrendingProperties, System::currentTimeMillis);
+    }
+
+    BookTrendingTracker(JdbcTemplate jdbcTemplate,
+                        TransactionTemplate transactionTemplate,
+                        BookTrendingProperties bookTrendingProperties,
+                        LongSupplier clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.bookTrendingProperties = bookTrendingProperties;
+        this.clock = clock;
+        this.lambda = Math.log(2) / bookTrendingProperties.getHalfLife().toMillis();
+        this.topIds = new int[bookTrendingProperties.getSize()];
+        this.topScores = new double[bookTrendingProperties.getSize()];
+        this.landmark = clock.getAsLong();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        long now = clock.getAsLong();
+        landmarkLock.writeLock().lock();
+        try {
+            scores.clear();
+            landmark = now;
+            jdbcTemplate.query(SELECT_SNAPSHOT, resultSet -> {
+                long age = Math.max(0, now - resultSet.getTimestamp(3).getTime());
+                scores.put(resultSet.getInt(1), resultSet.getDouble(2) * Math.exp(-lambda * age));
+            });
+            rebuildTop();
+            restored = true;
+        } finally {
+            landmarkLock.writeLock().unlock();
+        }
+        log.info("Trending scores restored for {} books", scores.size());
+    }
+
+    public void record(Integer bookId, Signal signal) {
+        landmarkLock.readLock().lock();
+        try {
+            double contribution = signal.weight * Math.exp(lambda * (clock.getAsLong() - landmark));
+            double score = scores.merge(bookId, contribution, Double::sum);
+            // scores only grow, so a book already in the top is always above the threshold
+            if (score > threshold) {
+                offer(bookId, score);
+            }
+        } finally {
+            landmarkLock.readLock().unlock();
+        }
+    }
+
+    public void remove(Integer bookId) {
+        removeAll(List.of(bookId));
+    }
+
+    public void removeAll(Collection<Integer> bookIds) {
+        if (scores.keySet().removeAll(bookIds)) {
+            rebuildTop();
+        }
+    }
+
+    /**
+     * Ids of the most active books, best first. Reads the published list, no computation.
+     */
+    public List<Integer> trending(int limit) {
+        List<Integer> current = trending;
+        return current.size() <= limit ? current : current.subList(0, limit);
+    }
+
+    /**
+     * Moves the landmark to now, drops scores that decayed below the configured minimum and
+     * writes the remaining ones to _book_trending.
+     */
+    public void snapshot() {
+        if (!restored) {
+            log.info("Trending scores not restored yet, snapshot skipped");
+            return;
+        }
+        long now = clock.getAsLong();
+        List<Object[]> rows = new ArrayList<>();
+        landmarkLock.writeLock().lock();
+        try {
+            double factor = Math.exp(-lambda * (now - landmark));
+            landmark = now;
+            scores.replaceAll((bookId, score) -> score * factor);
+            scores.values().removeIf(score -> score < bookTrendingProperties.getMinScore());
+            rebuildTop();
+            scores.forEach((bookId, score) -> rows.add(new Object[]{bookId, score, new Timestamp(now), bookId}));
+        } finally {
+            landmarkLock.writeLock().unlock();
+        }
+
+        Timestamp snapshotTime = new Timestamp(now);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPSERT_SNAPSHOT, rows);
+            jdbcTemplate.update(DELETE_STALE, snapshotTime);
+        });
+        log.info("Trending snapshot written for {} books", rows.size());
+    }
+
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            log.warn("Could not write the trending snapshot on shutdown: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void offer(int bookId, double score) {
+        int position = indexOf(bookId);
+        if (position >= 0) {
+            // concurrent events on one book may arrive out of order, keep the highest score seen
+            topScores[position] = Math.max(topScores[position], score);
+        } else if (topSize < topIds.length) {
+            position = topSize++;
+            topIds[position] = bookId;
+            topScores[position] = score;
+        } else if (score > topScores[topSize - 1]) {
+            position = topSize - 1;
+            topIds[position] = bookId;
+            topScores[position] = score;
+        } else {
+            return;
+        }
+        // the entry can only have moved up
+        while (position > 0 && topScores[position] > topScores[position - 1]) {
+            swap(position, position - 1);
+            position--;
+        }
+        publish();
+    }
+
+    private int indexOf(int bookId) {
+        for (int i = 0; i < topSize; i++) {
+            if (topIds[i] == bookId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private synchronized void rebuildTop() {
+        topSize = 0;
+        scores.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed())
+                .limit(topIds.length)
+                .forEach(entry -> {
+                    topIds[topSize] = entry.getKey();
+                    topScores[topSize] = entry.getValue();
+                    topSize++;
+                });
+        publish();
+    }
+
+    private void publish() {
+        threshold = topSize > 0 && topSize == topIds.length ? topScores[topSize - 1] : 0;
+        trending = Arrays.stream(topIds, 0, topSize).boxed().toList();
+    }
+
+    private void swap(int i, int j) {
+        int id = topIds[i];
+        topIds[i] = topIds[j];
+        topIds[j] = id;
+        double score = topScores[i];
+        topScores[i] = topScores[j];
+        topScores[j] = score;
+    }
+}
@@ -1,12 +1,40 @@
 package com.daniellaera.backend.service.impl;
 
+import com.daniellaera.backend.dao.BorrowHistoryEntry;
+import com.daniellaera.backend.dao.BorrowPeriod;
 import com.daniellaera.backend.model.Borrow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BorrowRepository extends JpaRepository<Borrow, Long> {
-    Optional<Borrow> findByBookId(Integer bookId);
+    // The borrow holding the copy today, through _book.current_borrow_id; past borrows and reservations are ignored
+    @Query("SELECT br FROM Book b JOIN b.currentBorrow br WHERE b.id = :bookId")
+    Optional<Borrow> findCurrentByBookId(Integer bookId);
+
+    // Ranges overlapping [from, to]; returned borrows no longer hold their range
+    @Query("SELECT new com.daniellaera.backend.dao.BorrowPeriod(br.borrowStartDate, br.borrowEndDate) " +
+            "FROM Borrow br WHERE br.book.id = :bookId AND br.isReturned = false " +
+            "AND br.borrowStartDate <= :to AND br.borrowEndDate >= :from ORDER BY br.borrowStartDate")
+    List<BorrowPeriod> findBookedPeriods(Integer bookId, Date from, Date to);
+
+    // Keyset pagination newest first on (borrowStartDate, id), backed by idx_borrow_user_start_id
+    @Query("SELECT new com.daniellaera.backend.dao.BorrowHistoryEntry(" +
+            "br.id, b.id, b.title, br.borrowStartDate, br.borrowEndDate, br.isReturned) " +
+            "FROM Borrow br JOIN br.book b WHERE br.user.email = :email " +
+            "ORDER BY br.borrowStartDate DESC, br.id DESC")
+    List<BorrowHistoryEntry> findFirstHistoryByUserEmail(String email, Pageable pageable);
+
+    @Query("SELECT new com.daniellaera.backend.dao.BorrowHistoryEntry(" +
+            "br.id, b.id, b.title, br.borrowStartDate, br.borrowEndDate, br.isReturned) " +
+            "FROM Borrow br JOIN br.book b WHERE br.user.email = :email " +
+            "AND (br.borrowStartDate, br.id) < (:startDate, :id) " +
+            "ORDER BY br.borrowStartDate DESC, br.id DESC")
+    List<BorrowHistoryEntry> findHistoryByUserEmailBefore(String email, Date startDate, Integer id, Pageable pageable);
 }
@@ -1,36 +1,123 @@
 package com.daniellaera.backend.service.impl;
 
 import com.daniellaera.backend.dao.BorrowDTO;
+import com.daniellaera.backend.dao.BorrowHistoryEntry;
+import com.daniellaera.backend.dao.BorrowPeriod;
+import com.daniellaera.backend.dao.CursorPage;
+import com.daniellaera.backend.exception.BorrowConflictException;
 import com.daniellaera.backend.model.Book;
 import com.daniellaera.backend.model.Borrow;
 import com.daniellaera.backend.model.User;
+import com.daniellaera.backend.properties.BorrowExpiryProperties;
 import com.daniellaera.backend.repository.BookRepository;
 import com.daniellaera.backend.repository.UserRepository;
 import com.daniellaera.backend.service.BorrowService;
+import com.daniellaera.backend.utils.CursorCodec;
+import com.daniellaera.backend.utils.TransactionUtils;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 @Component
 @Slf4j
 public class BorrowServiceImpl implements BorrowService {
 
+    // SQLState of an exclusion constraint violation; Hibernate does not extract its constraint name
+    private static final String EXCLUSION_VIOLATION = "23P01";
+    private static final int MAX_HISTORY_SIZE = 100;
+    private static final int DEFAULT_CALENDAR_DAYS = 90;
+    private static final int MAX_CALENDAR_DAYS = 366;
+
+    private static final String INSERT_BORROW =
+            "INSERT INTO _borrow (book_id, user_id, borrow_start_date, borrow_end_date, is_returned) " +
+            "VALUES (:bookId, :userId, :startDate, :endDate, FALSE)";
+
+    // Upper id of the next chunk of overdue borrows, walking idx_borrow_open_id
+    private static final String NEXT_EXPIRY_CHUNK =
+            "SELECT max(id) FROM (SELECT id FROM _borrow WHERE NOT is_returned AND borrow_end_date < :today " +
+            "AND id > :after ORDER BY id LIMIT :limit) chunk";
+    private static final String EXPIRE_BORROWS =
+            "UPDATE _borrow SET is_returned = TRUE " +
+            "WHERE id > :after AND id <= :upTo AND NOT is_returned AND borrow_end_date < :today " +
+            "RETURNING id, book_id";
+    // The _book updates below stamp updated_at with clock_timestamp(), as BookCounterRepositoryImpl does
+    private static final String RELEASE_BOOKS =
+            "UPDATE _book b SET is_available = TRUE, version = b.version + 1, updated_at = clock_timestamp() " +
+            "WHERE b.id IN (:bookIds) AND b.is_available = FALSE " +
+            "AND NOT EXISTS (SELECT 1 FROM _borrow o WHERE o.book_id = b.id AND NOT o.is_returned " +
+            "AND o.borrow_start_date <= :today) " +
+            "RETURNING b.id";
+    private static final String CLEAR_CURRENT_BORROWS =
+            "UPDATE _book SET current_borrow_id = NULL, version = version + 1, updated_at = clock_timestamp() " +
+            "WHERE current_borrow_id IN (:borrowIds) RETURNING id";
+    // Borrows whose range has reached today take their copy and become the book's current borrow;
+    // the previous availability comes from the locked row, for the facet counts
+    private static final String START_RESERVATIONS =
+            "UPDATE _book b SET current_borrow_id = due.borrow_id, is_available = FALSE, " +
+            "version = b.version + 1, updated_at = clock_timestamp() " +
+            "FROM (SELECT o.book_id, o.id AS borrow_id, coalesce(k.is_available, TRUE) AS was_available " +
+            "FROM _borrow o JOIN _book k ON k.id = o.book_id " +
+            "WHERE NOT o.is_returned AND o.borrow_start_date <= :today AND o.borrow_end_date >= :today " +
+            "AND o.id IS DISTINCT FROM k.current_borrow_id FOR UPDATE OF k) due " +
+            "WHERE b.id = due.book_id " +
+            "RETURNING b.id, due.was_available";
+    private static final String POINT_CURRENT_BORROW =
+            "UPDATE _book SET current_borrow_id = :borrowId, version = version + 1, updated_at = clock_timestamp() " +
+            "WHERE id = :bookId";
+
     private final UserRepository userRepository;
     private final BookRepository bookRepository;
     private final BorrowRepository borrowRepository;
+    private final BookFacetCounter bookFacetCounter;
+    private final BookTrendingTracker bookTrendingTracker;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final BorrowExpiryProperties borrowExpiryProperties;
 
     @Autowired
     public BorrowServiceImpl(
             UserRepository userRepository,
             BookRepository bookRepository,
-            BorrowRepository borrowRepository
+            BorrowRepository borrowRepository,
+            BookFacetCounter bookFacetCounter,
+            BookTrendingTracker bookTrendingTracker,
+            NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            EntityManagerFactory entityManagerFactory,
+            BorrowExpiryProperties borrowExpiryProperties
     ) {
         this.userRepository = userRepository;
         this.bookRepository = bookRepository;
         this.borrowRepository = borrowRepository;
+        this.bookFacetCounter = bookFacetCounter;
+        this.bookTrendingTracker = bookTrendingTracker;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.borrowExpiryProperties = borrowExpiryProperties;
     }
 
     /**
@@ -48,46 +135,71 @@ public class BorrowServiceImpl implements BorrowService {
                     return new UsernameNotFoundException("User not found with email: " + userEmail);
                 });
 
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> {
-                    log.error("Book not found with ID: {}", bookId);
-                    return new EntityNotFoundException("Book not found with ID: " + bookId);
-                });
-
-        // Check if the book is already borrowed and not returned
-        boolean isAlreadyBorrowed = book.getBorrows()
-                .stream()
-                .anyMatch(borrow -> !borrow.getIsReturned());
-
-        if (isAlreadyBorrowed) {
-            throw new IllegalStateException("Book is already borrowed and not yet returned.");
-        }
-
         // Validate borrow dates
-        if (borrowDTO.getBorrowStartDate().after(borrowDTO.getBorrowEndDate())) {
+        if (borrowDTO.getBorrowStartDate() == null || borrowDTO.getBorrowEndDate() == null) {
+            throw new IllegalArgumentException("Borrow start and end dates are required.");
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate startDate = toLocalDate(borrowDTO.getBorrowStartDate());
+        LocalDate endDate = toLocalDate(borrowDTO.getBorrowEndDate());
+        if (startDate.isAfter(endDate)) {
             throw new IllegalArgumentException("Borrow start date cannot be after the borrow end date.");
         }
+        if (startDate.isBefore(today)) {
+            throw new IllegalArgumentException("Borrow start date cannot be in the past.");
+        }
+        if (!bookRepository.existsById(bookId)) {
+            log.error("Book not found with ID: {}", bookId);
+            throw new EntityNotFoundException("Book not found with ID: " + bookId);
+        }
 
-        Borrow borrow = new Borrow();
-        borrow.setUser(user);
-        borrow.setBook(book);
-        borrow.setIsReturned(false);
-        borrow.setBorrowStartDate(borrowDTO.getBorrowStartDate());
-        borrow.setBorrowEndDate(borrowDTO.getBorrowEndDate());
-
-        Borrow savedBorrow = borrowRepository.save(borrow);
+        // No lookup of the book's other borrows: ex_borrow_book_period rejects an overlapping range
+        MapSqlParameterSource parameters = new MapSqlParameterSource("bookId", bookId)
+                .addValue("userId", user.getId())
+                .addValue("startDate", java.sql.Date.valueOf(startDate))
+                .addValue("endDate", java.sql.Date.valueOf(endDate));
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        try {
+            namedParameterJdbcTemplate.update(INSERT_BORROW, parameters, keyHolder, new String[]{"id"});
+        } catch (DataIntegrityViolationException e) {
+            if (e.getMostSpecificCause() instanceof SQLException cause && EXCLUSION_VIOLATION.equals(cause.getSQLState())) {
+                throw new BorrowConflictException("Book is already reserved for an overlapping period.");
+            }
+            throw e;
+        }
         log.info("Successfully created Borrow record for Book ID: {} and User ID: {}", bookId, user.getId());
 
-        book.setIsAvailable(false);
-        bookRepository.save(book);
-        log.info("Setting Book with ID: {} to unavailable (isAvailable = false)", bookId);
+        // A borrow starting today takes the copy now, later reservations are taken by BookStatusUpdateJob
+        boolean startsToday = !startDate.isAfter(today);
+        if (startsToday) {
+            namedParameterJdbcTemplate.update(POINT_CURRENT_BORROW, new MapSqlParameterSource("bookId", bookId)
+                    .addValue("borrowId", keyHolder.getKeyAs(Integer.class)));
+        }
+        boolean claimed = startsToday && bookRepository.claimForBorrow(bookId) == 1;
+        if (claimed) {
+            log.info("Setting Book with ID: {} to unavailable (isAvailable = false)", bookId);
+            TransactionUtils.afterCommit(() -> bookFacetCounter.availabilityChanged(false, 1));
+        }
+        TransactionUtils.afterCommit(() -> {
+            // written behind Hibernate's back, so the cached book and its borrows are stale
+            Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+            cache.evictEntityData(Book.class, bookId);
+            cache.evictCollectionData(Book.class.getName() + ".borrows", bookId);
+            bookTrendingTracker.record(bookId, BookTrendingTracker.Signal.BORROW);
+        });
 
-        return convertBorrowToBorrowDTO(savedBorrow);
+        return BorrowDTO.builder()
+                .bookId(bookId)
+                .userId(user.getId())
+                .isReturned(false)
+                .borrowStartDate(java.sql.Date.valueOf(startDate))
+                .borrowEndDate(java.sql.Date.valueOf(endDate))
+                .build();
     }
 
     @Override
     public BorrowDTO getBorrowByBookId(Integer bookId) {
-        Borrow borrow = borrowRepository.findByBookId(bookId).orElseThrow(
+        Borrow borrow = borrowRepository.findCurrentByBookId(bookId).orElseThrow(
                 () -> new EntityNotFoundException("Borrow not found with Book Id: " + bookId)
         );
 
@@ -96,6 +208,157 @@ public class BorrowServiceImpl implements BorrowService {
         return convertBorrowToBorrowDTO(borrow);
     }
 
+    @Override
+    public List<BorrowPeriod> getBookingCalendar(Integer bookId, LocalDate from, LocalDate to) {
+        LocalDate windowStart = from != null ? from : LocalDate.now();
+        LocalDate windowEnd = to != null ? to : windowStart.plusDays(DEFAULT_CALENDAR_DAYS);
+        if (windowStart.isAfter(windowEnd)) {
+            throw new IllegalArgumentException("Calendar start cannot be after its end.");
+        }
+        if (windowStart.plusDays(MAX_CALENDAR_DAYS).isBefore(windowEnd)) {
+            throw new IllegalArgumentException("Calendar window cannot exceed " + MAX_CALENDAR_DAYS + " days.");
+        }
+        if (!bookRepository.existsById(bookId)) {
+            throw new EntityNotFoundException("Book not found with ID: " + bookId);
+        }
+        return borrowRepository.findBookedPeriods(bookId, java.sql.Date.valueOf(windowStart), java.sql.Date.valueOf(windowEnd));
+    }
+
+    @Override
+    public long startDueReservations() {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("today", java.sql.Date.valueOf(LocalDate.now()));
+        List<Integer> bookIds = new ArrayList<>();
+        int[] taken = new int[1];
+        transactionTemplate.executeWithoutResult(status ->
+                namedParameterJdbcTemplate.query(START_RESERVATIONS, parameters, resultSet -> {
+                    bookIds.add(resultSet.getInt("id"));
+                    if (resultSet.getBoolean("was_available")) {
+                        taken[0]++;
+                    }
+                }));
+
+        // committed, bring the facets and the second-level cache in line
+        bookFacetCounter.availabilityChanged(false, taken[0]);
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        bookIds.forEach(id -> cache.evictEntityData(Book.class, id));
+
+        log.info("Reservations starting today took {} books", taken[0]);
+        return taken[0];
+    }
+
+    @Override
+    public CursorPage<BorrowHistoryEntry> scrollBorrowHistory(String userEmail, String cursor, int size) {
+        int pageSize = Math.clamp(size, 1, MAX_HISTORY_SIZE);
+        // fetch one extra row to know whether another page follows, without a COUNT(*)
+        PageRequest limit = PageRequest.ofSize(pageSize + 1);
+
+        List<BorrowHistoryEntry> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = borrowRepository.findFirstHistoryByUserEmail(userEmail, limit);
+        } else {
+            CursorCodec.Cursor position = CursorCodec.decode(cursor);
+            rows = borrowRepository.findHistoryByUserEmailBefore(userEmail, parseCursorDate(position.key()), position.id(), limit);
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        List<BorrowHistoryEntry> content = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            BorrowHistoryEntry last = content.getLast();
+            nextCursor = CursorCodec.encode(toLocalDate(last.getBorrowStartDate()).toString(), last.getId());
+        }
+
+        return new CursorPage<>(content, nextCursor, hasNext);
+    }
+
+    private static java.sql.Date parseCursorDate(String key) {
+        try {
+            return java.sql.Date.valueOf(LocalDate.parse(key));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor date: " + key);
+        }
+    }
+
+    // borrow dates are DATE columns, read back as java.sql.Date which has no toInstant()
+    private static LocalDate toLocalDate(Date date) {
+        return date instanceof java.sql.Date sqlDate
+                ? sqlDate.toLocalDate()
+                : date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    /**
+     * Closes overdue borrows chunk by chunk: each chunk is a bounded id range of open borrows,
+     * closed with one UPDATE ... RETURNING and followed by one UPDATE freeing their books, in its
+     * own transaction. Nothing is loaded into the persistence context.
+     */
+    @Override
+    public long expireOverdueBorrows() {
+        java.sql.Date today = java.sql.Date.valueOf(LocalDate.now());
+        long start = System.currentTimeMillis();
+        long borrowsExpired = 0;
+        long booksReleased = 0;
+        int after = 0;
+
+        while (true) {
+            MapSqlParameterSource parameters = new MapSqlParameterSource("today", today)
+                    .addValue("after", after)
+                    .addValue("limit", borrowExpiryProperties.getChunkSize());
+            ExpiredChunk chunk = transactionTemplate.execute(status -> expireChunk(parameters));
+            if (chunk == null) {
+                break;
+            }
+            after = chunk.upTo();
+            borrowsExpired += chunk.borrowIds().size();
+            booksReleased += chunk.releasedBookIds().size();
+
+            // committed, bring the facets and the second-level cache in line
+            bookFacetCounter.availabilityChanged(true, chunk.releasedBookIds().size());
+            Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+            chunk.borrowIds().forEach(id -> cache.evictEntityData(Borrow.class, id));
+            chunk.clearedBookIds().forEach(id -> cache.evictEntityData(Book.class, id));
+            chunk.releasedBookIds().forEach(id -> cache.evictEntityData(Book.class, id));
+
+            log.info("Borrow expiry: {} borrows expired, {} books released so far ({} rows/s)",
+                    borrowsExpired, booksReleased, rowsPerSecond(borrowsExpired, start));
+        }
+
+        if (borrowsExpired == 0) {
+            log.info("No expired borrows to update.");
+        } else {
+            log.info("Borrow expiry done: {} borrows expired, {} books released in {} ms ({} rows/s)",
+                    borrowsExpired, booksReleased, System.currentTimeMillis() - start, rowsPerSecond(borrowsExpired, start));
+        }
+        return borrowsExpired;
+    }
+
+    private ExpiredChunk expireChunk(MapSqlParameterSource parameters) {
+        Integer upTo = namedParameterJdbcTemplate.queryForObject(NEXT_EXPIRY_CHUNK, parameters, Integer.class);
+        if (upTo == null) {
+            return null;
+        }
+        List<Integer> borrowIds = new ArrayList<>();
+        Set<Integer> bookIds = new HashSet<>();
+        namedParameterJdbcTemplate.query(EXPIRE_BORROWS, parameters.addValue("upTo", upTo), resultSet -> {
+            borrowIds.add(resultSet.getInt("id"));
+            bookIds.add(resultSet.getInt("book_id"));
+        });
+        if (borrowIds.isEmpty()) {
+            return new ExpiredChunk(upTo, borrowIds, List.of(), List.of());
+        }
+        List<Integer> clearedBookIds = namedParameterJdbcTemplate.queryForList(
+                CLEAR_CURRENT_BORROWS, new MapSqlParameterSource("borrowIds", borrowIds), Integer.class);
+        List<Integer> releasedBookIds = namedParameterJdbcTemplate.queryForList(
+                RELEASE_BOOKS, new MapSqlParameterSource("bookIds", bookIds).addValue("today", parameters.getValue("today")), Integer.class);
+        return new ExpiredChunk(upTo, borrowIds, clearedBookIds, releasedBookIds);
+    }
+
+    private static long rowsPerSecond(long rows, long start) {
+        return rows * 1000 / Math.max(1, System.currentTimeMillis() - start);
+    }
+
+    private record ExpiredChunk(int upTo, List<Integer> borrowIds, List<Integer> clearedBookIds, List<Integer> releasedBookIds) {
+    }
+
     private BorrowDTO convertBorrowToBorrowDTO(Borrow savedBorrow) {
 
         return BorrowDTO.builder()
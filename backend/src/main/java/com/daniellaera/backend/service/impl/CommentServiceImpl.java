@@ -9,10 +9,12 @@ import com.daniellaera.backend.repository.CommentRepository;
 import com.daniellaera.backend.repository.UserRepository;
 import com.daniellaera.backend.service.CommentService;
 import jakarta.persistence.EntityNotFoundException;
+import com.daniellaera.backend.utils.TransactionUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -24,15 +26,21 @@ public class CommentServiceImpl implements CommentService {
     private final CommentRepository commentRepository;
     private final UserRepository userRepository;
     private final BookRepository bookRepository;
+    private final BookTrendingTracker bookTrendingTracker;
 
     @Autowired
-    public CommentServiceImpl(CommentRepository commentRepository, UserRepository userRepository, BookRepository bookRepository) {
+    public CommentServiceImpl(CommentRepository commentRepository,
+                              UserRepository userRepository,
+                              BookRepository bookRepository,
+                              BookTrendingTracker bookTrendingTracker) {
         this.commentRepository = commentRepository;
         this.userRepository = userRepository;
         this.bookRepository = bookRepository;
+        this.bookTrendingTracker = bookTrendingTracker;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CommentDTO> getCommentsByBookId(Integer bookId) {
         List<Comment> comments = commentRepository.findAllByBookId(bookId);
 
@@ -43,6 +51,7 @@ public class CommentServiceImpl implements CommentService {
     }
 
     @Override
+    @Transactional
     public CommentDTO createCommentByBookIdAndUserId(Integer bookId, String userEmail, CommentDTO commentDTO) {
         log.info("Loading user by username: {}", userEmail);
 
@@ -65,6 +74,8 @@ public class CommentServiceImpl implements CommentService {
                 .build();
 
         Comment savedComment = commentRepository.save(comment);
+        bookRepository.incrementCommentCount(bookId);
+        TransactionUtils.afterCommit(() -> bookTrendingTracker.record(bookId, BookTrendingTracker.Signal.COMMENT));
         return convertCommentEntityToCommentDTO(savedComment);
     }
 
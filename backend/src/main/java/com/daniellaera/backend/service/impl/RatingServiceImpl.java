@@ -9,10 +9,12 @@ import com.daniellaera.backend.repository.RatingRepository;
 import com.daniellaera.backend.repository.UserRepository;
 import com.daniellaera.backend.service.RatingService;
 import jakarta.persistence.EntityNotFoundException;
+import com.daniellaera.backend.utils.TransactionUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -24,18 +26,22 @@ public class RatingServiceImpl implements RatingService {
     private final RatingRepository ratingRepository;
     private final UserRepository userRepository;
     private final BookRepository bookRepository;
+    private final BookTrendingTracker bookTrendingTracker;
 
     @Autowired
     public RatingServiceImpl(
         RatingRepository ratingRepository,
         UserRepository userRepository,
-        BookRepository bookRepository) {
+        BookRepository bookRepository,
+        BookTrendingTracker bookTrendingTracker) {
             this.ratingRepository = ratingRepository;
             this.userRepository = userRepository;
             this.bookRepository = bookRepository;
+            this.bookTrendingTracker = bookTrendingTracker;
         }
 
     @Override
+    @Transactional
     public RatingDTO createRatingByBookIdAndUserId(Integer bookId, String userEmail, RatingDTO ratingDTO) {
         log.info("Loading user by username: {}", userEmail);
 
@@ -51,6 +57,10 @@ public class RatingServiceImpl implements RatingService {
                     return new EntityNotFoundException("Book not found with ID: " + bookId);
                 });
 
+        if (ratingDTO.getScore() == null) {
+            throw new IllegalArgumentException("A rating needs a score");
+        }
+
         Rating rating = new Rating();
         rating.setUser(user);
         rating.setBook(book);
@@ -58,17 +68,16 @@ public class RatingServiceImpl implements RatingService {
 
         Rating savedRating = ratingRepository.save(rating);
 
-        // update the book average
-        if (book.getRatings().size() >= 2) {
-            log.info("Updating average rating: {}", ratingDTO);
-            this.updateAverageRating(book);
-        }
+        // count, sum and average are updated in place, the ratings collection is never loaded
+        bookRepository.addRating(bookId, savedRating.getScore());
+        TransactionUtils.afterCommit(() -> bookTrendingTracker.record(bookId, BookTrendingTracker.Signal.RATING));
 
         return convertRatingToRatingDTO(savedRating);
 
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<RatingDTO> getRatingsByBookId(Integer bookId) {
         List<Rating> ratingList = ratingRepository.findAllByBookId(bookId);
 
@@ -84,28 +93,4 @@ public class RatingServiceImpl implements RatingService {
         ratingDTO.setUserId(savedRating.getUser().getId());
         return ratingDTO;
     }
-
-    private void updateAverageRating(Book book) {
-        List<Rating> ratings = book.getRatings();
-        double averageRating = calculateAverageRating(ratings);
-        book.setAverageRating(averageRating);
-        bookRepository.save(book);
-    }
-
-    private Double calculateAverageRating(List<Rating> ratings) {
-        if (ratings == null || ratings.isEmpty()) {
-            return 0.0; // Return 0 if no ratings
-        }
-
-        double sum = 0.0;
-        int count = 0;
-
-        for (Rating rating : ratings) {
-            sum += Math.min(rating.getScore(), 5); // Cap each rating at 5 stars
-            count++;
-        }
-
-        double average = sum / count; // Calculate average
-        return Math.min(average * 2, 5.0); // Return capped average, max 5 stars
-    }
 }
@@ -0,0 +1,108 @@
+package com.daniellaera.backend.service.impl;
+
+import com.daniellaera.backend.dao.CacheRegionStatsDTO;
+import com.daniellaera.backend.dao.CacheStatsDTO;
+import com.daniellaera.backend.service.SecondLevelCacheService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reports and manages the Hibernate second-level cache. Hit, miss, put and remove
+ * counts come from Hibernate's region statistics; size/expiry evictions are only
+ * known to the JCache provider and are read from its JSR-107 statistics MBeans.
+ */
+@Component
+@Slf4j
+public class SecondLevelCacheServiceImpl implements SecondLevelCacheService {
+
+    private static final String JCACHE_STATISTICS_QUERY = "javax.cache:type=CacheStatistics,*";
+
+    private final SessionFactory sessionFactory;
+    private final MBeanServer mBeanServer;
+
+    @Autowired
+    public SecondLevelCacheServiceImpl(EntityManagerFactory entityManagerFactory) {
+        this(entityManagerFactory.unwrap(SessionFactory.class), ManagementFactory.getPlatformMBeanServer());
+    }
+
+    SecondLevelCacheServiceImpl(SessionFactory sessionFactory, MBeanServer mBeanServer) {
+        this.sessionFactory = sessionFactory;
+        this.mBeanServer = mBeanServer;
+    }
+
+    @Override
+    public CacheStatsDTO getStatistics() {
+        Statistics statistics = sessionFactory.getStatistics();
+        Map<String, Long> evictions = jcacheEvictionCounts();
+
+        List<CacheRegionStatsDTO> regions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .map(region -> toRegionStats(statistics.getCacheRegionStatistics(region), evictions))
+                .sorted(Comparator.comparing(CacheRegionStatsDTO::getRegion))
+                .toList();
+
+        return new CacheStatsDTO(
+                statistics.isStatisticsEnabled(),
+                statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount(),
+                regions
+        );
+    }
+
+    @Override
+    public void evictAll() {
+        sessionFactory.getCache().evictAllRegions();
+        log.info("Evicted all second-level cache regions");
+    }
+
+    @Override
+    public void evictRegion(String region) {
+        if (!Arrays.asList(sessionFactory.getStatistics().getSecondLevelCacheRegionNames()).contains(region)) {
+            throw new IllegalArgumentException("Unknown cache region: " + region);
+        }
+        sessionFactory.getCache().evictRegion(region);
+        log.info("Evicted second-level cache region {}", region);
+    }
+
+    private CacheRegionStatsDTO toRegionStats(CacheRegionStatistics regionStatistics, Map<String, Long> evictions) {
+        String region = regionStatistics.getRegionName();
+        long elementCount = regionStatistics.getElementCountInMemory();
+        return new CacheRegionStatsDTO(
+                region,
+                regionStatistics.getHitCount(),
+                regionStatistics.getMissCount(),
+                regionStatistics.getPutCount(),
+                regionStatistics.getRemoveCount(),
+                evictions.getOrDefault(region, 0L),
+                elementCount == CacheRegionStatistics.NO_EXTENDED_STAT_SUPPORT_RETURN ? null : elementCount
+        );
+    }
+
+    private Map<String, Long> jcacheEvictionCounts() {
+        Map<String, Long> evictions = new HashMap<>();
+        try {
+            for (ObjectName name : mBeanServer.queryNames(new ObjectName(JCACHE_STATISTICS_QUERY), null)) {
+                Object count = mBeanServer.getAttribute(name, "CacheEvictions");
+                evictions.merge(name.getKeyProperty("Cache"), ((Number) count).longValue(), Long::sum);
+            }
+        } catch (JMException e) {
+            log.warn("Unable to read JCache eviction statistics: {}", e.getMessage());
+        }
+        return evictions;
+    }
+}
@@ -0,0 +1,32 @@
+package com.daniellaera.backend.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the position of the last row of a keyset page (its sort key plus its id)
+ * into an opaque, URL-safe token, and decodes it back.
+ */
+public class CursorCodec {
+
+    private static final char SEPARATOR = '|';
+
+    public record Cursor(String key, Integer id) {
+    }
+
+    public static String encode(String key, Integer id) {
+        String raw = id + String.valueOf(SEPARATOR) + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // the id never contains the separator, so the first one splits id and key
+            int separatorIndex = raw.indexOf(SEPARATOR);
+            return new Cursor(raw.substring(separatorIndex + 1), Integer.valueOf(raw.substring(0, separatorIndex)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
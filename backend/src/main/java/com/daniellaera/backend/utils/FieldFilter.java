@@ -0,0 +1,70 @@
+package com.daniellaera.backend.utils;
+
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sparse fieldsets: reduces a DTO to the JSON properties a client asked for with {@code ?fields=}.
+ * Property names are the ones the DTO serializes to, so they match the full response.
+ */
+public class FieldFilter {
+
+    private static final JsonMapper MAPPER = JsonMapper.builder().build();
+    private static final TypeReference<LinkedHashMap<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    /**
+     * Parses a comma separated field list, keeping the requested order.
+     */
+    public static Set<String> parse(String fields) {
+        Set<String> parsed = new LinkedHashSet<>();
+        Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .forEach(parsed::add);
+        return parsed;
+    }
+
+    /**
+     * All JSON property names of a DTO type, in serialization order.
+     */
+    public static Set<String> propertyNames(Class<?> type) {
+        return new LinkedHashSet<>(toMap(newInstance(type)).keySet());
+    }
+
+    /**
+     * Throws {@link IllegalArgumentException} if any field is not a property of the given DTO type.
+     */
+    public static void validate(Class<?> type, Set<String> fields) {
+        Set<String> known = propertyNames(type);
+        List<String> unknown = fields.stream().filter(field -> !known.contains(field)).toList();
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Unknown fields " + unknown + ", expected any of " + known);
+        }
+    }
+
+    public static Map<String, Object> retain(Object dto, Set<String> fields) {
+        Map<String, Object> properties = toMap(dto);
+        properties.keySet().retainAll(fields);
+        return properties;
+    }
+
+    private static Map<String, Object> toMap(Object dto) {
+        return MAPPER.convertValue(dto, MAP_TYPE);
+    }
+
+    private static Object newInstance(Class<?> type) {
+        try {
+            return type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot introspect " + type.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.daniellaera.backend.utils;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes ISBNs as they come from forms and scanners ('978-0-13-235088-4', '0132350884',
+ * '978 0132350884', ...) to the bare 13-digit form stored in _book.isbn13.
+ * Only the shape is checked: the check digit of an ISBN-13 is kept as given, the one of an
+ * ISBN-10 is recomputed for its 978 form, exactly like V17 does for the existing rows.
+ */
+public class IsbnUtils {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s-]");
+    private static final Pattern ISBN_10 = Pattern.compile("\\d{9}[\\dX]");
+    private static final Pattern ISBN_13 = Pattern.compile("97[89]\\d{10}");
+
+    public static String toIsbn13(String isbn) {
+        if (isbn == null) {
+            throw new IllegalArgumentException("ISBN is required");
+        }
+        String compact = SEPARATORS.matcher(isbn.trim()).replaceAll("").toUpperCase(Locale.ROOT);
+        if (ISBN_13.matcher(compact).matches()) {
+            return compact;
+        }
+        if (ISBN_10.matcher(compact).matches()) {
+            String body = "978" + compact.substring(0, 9);
+            return body + checkDigit(body);
+        }
+        throw new IllegalArgumentException("Invalid ISBN: " + isbn);
+    }
+
+    // EAN-13 check digit over the first twelve digits, weights alternating 1 and 3
+    private static int checkDigit(String twelveDigits) {
+        int sum = 0;
+        for (int i = 0; i < twelveDigits.length(); i++) {
+            sum += (twelveDigits.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
@@ -0,0 +1,3 @@
+-- Composite index backing keyset pagination over the catalog ordered by title:
+-- WHERE (title, id) > (?, ?) ORDER BY title, id becomes an index seek instead of an offset scan
+CREATE INDEX idx_book_title_id ON _book (title, id);
@@ -0,0 +1,10 @@
+-- Weighted full-text document over title (A), author (B) and description (C),
+-- kept up to date by PostgreSQL itself as a stored generated column
+ALTER TABLE _book
+    ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(author, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'C')
+    ) STORED;
+
+CREATE INDEX idx_book_search_vector ON _book USING GIN (search_vector);
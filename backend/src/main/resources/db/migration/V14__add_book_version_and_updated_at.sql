@@ -0,0 +1,9 @@
+-- Optimistic-lock version and last modification time, used to answer conditional GETs
+ALTER TABLE _book
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE _book
+    ADD COLUMN updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+-- max(updated_at) for the catalog-level validator is answered from the end of this index
+CREATE INDEX idx_book_updated_at ON _book (updated_at);
@@ -0,0 +1,3 @@
+-- ISBNs are stored as entered ('978-0132350884', '0132350884', ...). Bulk imports detect
+-- duplicates on the digits alone, so index that normalized form.
+CREATE INDEX idx_book_isbn_normalized ON _book ((upper(regexp_replace(isbn, '[^0-9Xx]', '', 'g'))));
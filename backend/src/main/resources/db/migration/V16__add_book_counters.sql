@@ -0,0 +1,11 @@
+-- Denormalized counters so listings can show comment and rating totals without reading _comment or _rating.
+-- Maintained by in-place increments when a comment or rating is added; see BookRepository#reconcileCounters.
+ALTER TABLE _book
+    ADD COLUMN comment_count INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN rating_count INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN rating_sum BIGINT NOT NULL DEFAULT 0;
+
+UPDATE _book b
+SET comment_count = (SELECT count(*) FROM _comment c WHERE c.book_id = b.id),
+    rating_count = (SELECT count(*) FROM _rating r WHERE r.book_id = b.id),
+    rating_sum = (SELECT coalesce(sum(r.score), 0) FROM _rating r WHERE r.book_id = b.id);
@@ -0,0 +1,38 @@
+-- Normalized ISBN-13 ('9780132350884') next to the ISBN as entered, unique so lookups are an index hit
+-- and the same book cannot be added twice. Mirrors IsbnUtils#toIsbn13.
+ALTER TABLE _book
+    ADD COLUMN isbn13 VARCHAR(13);
+
+CREATE FUNCTION to_isbn13(isbn TEXT) RETURNS VARCHAR(13) AS $$
+DECLARE
+    compact TEXT := upper(regexp_replace(isbn, '[\s-]', '', 'g'));
+    body TEXT;
+    total INTEGER := 0;
+BEGIN
+    IF compact ~ '^97[89][0-9]{10}$' THEN
+        RETURN compact;
+    END IF;
+    IF compact !~ '^[0-9]{9}[0-9X]$' THEN
+        RETURN NULL;
+    END IF;
+    body := '978' || left(compact, 9);
+    FOR i IN 1..12 LOOP
+        total := total + substr(body, i, 1)::INTEGER * CASE WHEN i % 2 = 1 THEN 1 ELSE 3 END;
+    END LOOP;
+    RETURN body || ((10 - total % 10) % 10)::TEXT;
+END;
+$$ LANGUAGE plpgsql IMMUTABLE;
+
+UPDATE _book SET isbn13 = to_isbn13(isbn);
+
+DROP FUNCTION to_isbn13(TEXT);
+
+-- Rows that cannot be normalized keep a NULL isbn13; of existing duplicates only the oldest keeps it
+UPDATE _book b
+SET isbn13 = NULL
+WHERE EXISTS (SELECT 1 FROM _book o WHERE o.isbn13 = b.isbn13 AND o.id < b.id);
+
+CREATE UNIQUE INDEX uk_book_isbn13 ON _book (isbn13);
+
+-- Bulk import duplicate detection now uses isbn13
+DROP INDEX idx_book_isbn_normalized;
@@ -0,0 +1,8 @@
+-- One (sort key, id) index per order accepted by the catalog listings (see BookSort), so that
+-- ORDER BY key, id LIMIT n is answered by walking an index instead of sorting the whole table.
+-- (title, id) already exists as idx_book_title_id.
+CREATE INDEX idx_book_isbn_id ON _book (isbn, id);
+CREATE INDEX idx_book_author_id ON _book (author, id);
+CREATE INDEX idx_book_published_date_id ON _book (published_date, id);
+CREATE INDEX idx_book_average_rating_id ON _book (average_rating, id);
+CREATE INDEX idx_book_created_date_id ON _book (created_date, id);
@@ -0,0 +1,3 @@
+-- BookSimilarityIndex streams every rating grouped by user and book; with score included the
+-- scan is index-only and already in order, so a rebuild never sorts _rating on disk.
+CREATE INDEX idx_rating_user_book_id ON _rating (user_id, book_id, id) INCLUDE (score);
@@ -0,0 +1,9 @@
+-- Last snapshot of the decayed trending scores kept in memory by BookTrendingTracker,
+-- read back at startup; score is the value as of updated_at.
+CREATE TABLE _book_trending
+(
+    book_id    INT PRIMARY KEY,
+    score      DOUBLE PRECISION NOT NULL,
+    updated_at TIMESTAMP        NOT NULL,
+    CONSTRAINT fk_book_trending_book FOREIGN KEY (book_id) REFERENCES _book (id) ON DELETE CASCADE
+);
@@ -0,0 +1,9 @@
+-- PostgreSQL does not index foreign keys on its own. Without these, every book removed by a
+-- DELETE on _book scans _comment, _rating and _borrow in full to apply ON DELETE CASCADE.
+CREATE INDEX idx_comment_book_id ON _comment (book_id);
+CREATE INDEX idx_rating_book_id ON _rating (book_id);
+CREATE INDEX idx_borrow_book_id ON _borrow (book_id);
+
+-- Bulk delete by genre or creator walks (key, id) chunk by chunk
+CREATE INDEX idx_book_genre_id ON _book (genre, id);
+CREATE INDEX idx_book_created_by_id ON _book (created_by, id);
@@ -0,0 +1,14 @@
+-- At most one open (not returned) borrow per book. The availability claim in BorrowServiceImpl
+-- already serializes borrowers; this index is the backstop in the database itself.
+
+-- Earlier check-then-insert races may have left several open borrows on a book: keep the latest one
+UPDATE _borrow b
+SET is_returned = TRUE
+WHERE NOT b.is_returned
+  AND EXISTS (SELECT 1
+              FROM _borrow newer
+              WHERE newer.book_id = b.book_id
+                AND NOT newer.is_returned
+                AND newer.id > b.id);
+
+CREATE UNIQUE INDEX uk_borrow_open_book ON _borrow (book_id) WHERE NOT is_returned;
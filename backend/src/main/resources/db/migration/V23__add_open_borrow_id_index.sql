@@ -0,0 +1,3 @@
+-- The expiry job walks the open borrows in id order and filters on the end date. Open borrows are
+-- at most one per book, so this partial index stays small however long the borrow history gets.
+CREATE INDEX idx_borrow_open_id ON _borrow (id) INCLUDE (borrow_end_date) WHERE NOT is_returned;
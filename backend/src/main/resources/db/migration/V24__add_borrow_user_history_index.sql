@@ -0,0 +1,4 @@
+-- Per-user borrow history is read newest first with keyset paging on (borrow_start_date, id).
+-- Both keys descend so the scan runs forward, and the INCLUDE columns make it index-only on _borrow.
+CREATE INDEX idx_borrow_user_start_id ON _borrow (user_id, borrow_start_date DESC, id DESC)
+    INCLUDE (borrow_end_date, is_returned, book_id);
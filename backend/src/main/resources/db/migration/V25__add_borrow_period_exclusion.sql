@@ -0,0 +1,22 @@
+-- Borrows become reservations of a date range: a book may have several open ones, as long as their
+-- ranges (both ends inclusive) do not overlap. The database enforces it, so concurrent reservations
+-- need no lock on the book and no scan of its borrows.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- daterange() rejects an inverted range; the service never wrote one, but the schema allowed it
+UPDATE _borrow
+SET borrow_end_date = borrow_start_date
+WHERE borrow_end_date < borrow_start_date;
+
+ALTER TABLE _borrow
+    ADD COLUMN period daterange GENERATED ALWAYS AS (daterange(borrow_start_date, borrow_end_date, '[]')) STORED;
+
+-- Returned borrows free their range, including the days they were not kept
+ALTER TABLE _borrow
+    ADD CONSTRAINT ex_borrow_book_period EXCLUDE USING gist (book_id WITH =, period WITH &&) WHERE (NOT is_returned);
+
+-- One open borrow per book would forbid any reservation behind the current borrow
+DROP INDEX uk_borrow_open_book;
+
+-- A reader may borrow or reserve a book again once they have returned it
+ALTER TABLE _borrow DROP CONSTRAINT IF EXISTS _borrow_book_id_user_id_key;
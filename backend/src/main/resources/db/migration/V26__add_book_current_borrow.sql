@@ -0,0 +1,16 @@
+-- Pointer to the borrow holding the copy today, so a book no longer needs its borrow history to
+-- tell who has it. Kept by BorrowServiceImpl; cleared by the database if the borrow is deleted.
+ALTER TABLE _book
+    ADD COLUMN current_borrow_id INT REFERENCES _borrow (id) ON DELETE SET NULL;
+
+-- Expiry clears the pointer by borrow id, and ON DELETE SET NULL looks it up the same way
+CREATE INDEX idx_book_current_borrow_id ON _book (current_borrow_id) WHERE current_borrow_id IS NOT NULL;
+
+-- At most one open borrow covers a given day (ex_borrow_book_period)
+UPDATE _book b
+SET current_borrow_id = o.id
+FROM _borrow o
+WHERE o.book_id = b.id
+  AND NOT o.is_returned
+  AND o.borrow_start_date <= CURRENT_DATE
+  AND o.borrow_end_date >= CURRENT_DATE;
@@ -0,0 +1,7 @@
+-- idx_rating_user_book_id served the old rebuild query, which streamed _rating in (user_id, book_id)
+-- order. The rebuild now ranks the raters of each book by recency first, so nothing reads it anymore.
+DROP INDEX IF EXISTS idx_rating_user_book_id;
+
+-- row_number() OVER (PARTITION BY book_id ORDER BY id DESC) reads this in order, index-only;
+-- only the final regrouping by user still sorts
+CREATE INDEX idx_rating_book_recency ON _rating (book_id, id DESC) INCLUDE (user_id, score);
@@ -0,0 +1,8 @@
+-- Corrects the notes of V22 and V23 for the reservation model of V25: a book may now have several
+-- open borrows, one per reserved range, and uk_borrow_open_book is gone. idx_borrow_open_id holds
+-- every open borrow, future reservations included, so it grows with the outstanding reservations
+-- rather than with the number of books. It stays small next to the returned history it leaves out.
+-- It cannot be narrowed to the borrows current today, since a partial index predicate may not use
+-- CURRENT_DATE.
+COMMENT ON INDEX idx_borrow_open_id IS
+    'Open borrows and reservations in id order, for the expiry job; several per book since V25';
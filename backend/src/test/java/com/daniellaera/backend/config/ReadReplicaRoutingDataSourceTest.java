@@ -0,0 +1,172 @@
+package com.daniellaera.backend.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadReplicaRoutingDataSourceTest {
+
+    private final long[] now = {0};
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+    private ReadReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DataSource primary = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        routingDataSource = new ReadReplicaRoutingDataSource(
+                primary, mock(DataSource.class), Duration.ofSeconds(5), () -> now[0]);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("reader@example.com", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        routingDataSource.restoreRoute(null);
+        TransactionSynchronizationManager.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        assertThat(routeIn(true)).isEqualTo(ReadReplicaRoutingDataSource.Route.REPLICA);
+        assertThat(routeIn(false)).isEqualTo(ReadReplicaRoutingDataSource.Route.PRIMARY);
+    }
+
+    @Test
+    void readsStickToPrimaryForTheWindowAfterACommittedWrite() throws SQLException {
+        when(statement.executeUpdate()).thenReturn(1);
+        commitTransaction("UPDATE _book SET title = ? WHERE id = ?");
+
+        now[0] += Duration.ofSeconds(4).toNanos();
+        assertThat(routeIn(true)).isEqualTo(ReadReplicaRoutingDataSource.Route.PRIMARY);
+
+        // other clients are not affected by this write
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("someone@example.com", null, List.of()));
+        assertThat(routeIn(true)).isEqualTo(ReadReplicaRoutingDataSource.Route.REPLICA);
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("reader@example.com", null, List.of()));
+        now[0] += Duration.ofSeconds(2).toNanos();
+        assertThat(routeIn(true)).isEqualTo(ReadReplicaRoutingDataSource.Route.REPLICA);
+    }
+
+    @Test
+    void routeDecidedAtBeginHoldsForTheWholeTransaction() throws SQLException {
+        when(statement.executeUpdate()).thenReturn(1);
+        commitTransaction("UPDATE _book SET title = ? WHERE id = ?");
+        now[0] += Duration.ofSeconds(4).toNanos();
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        routingDataSource.bindRoute(true);
+        // the window ends before the connection is acquired
+        now[0] += Duration.ofSeconds(2).toNanos();
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(ReadReplicaRoutingDataSource.Route.PRIMARY);
+    }
+
+    @Test
+    void innerTransactionGivesTheOuterRouteBack() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        routingDataSource.bindRoute(true);
+
+        ReadReplicaRoutingDataSource.Route outer = routingDataSource.currentRoute();
+        routingDataSource.bindRoute(false);
+        assertThat(routingDataSource.currentRoute()).isEqualTo(ReadReplicaRoutingDataSource.Route.PRIMARY);
+        routingDataSource.restoreRoute(outer);
+
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(ReadReplicaRoutingDataSource.Route.REPLICA);
+    }
+
+    @Test
+    void readOnlyFlagWithoutBoundRouteGoesToPrimary() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(ReadReplicaRoutingDataSource.Route.PRIMARY);
+    }
+
+    @Test
+    void rolledBackWritesDoNotPinReadsToPrimary() throws SQLException {
+        when(statement.executeUpdate()).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+        routingDataSource.getConnection().prepareStatement("UPDATE _book SET title = ? WHERE id = ?").executeUpdate();
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clear();
+
+        assertThat(routeIn(true)).isEqualTo(ReadReplicaRoutingDataSource.Route.REPLICA);
+    }
+
+    @Test
+    void transactionsThatChangedNoRowsDoNotPinReadsToPrimary() throws SQLException {
+        when(statement.executeUpdate()).thenReturn(0);
+        commitTransaction("UPDATE _book SET title = ? WHERE id = ?");
+        commitTransaction("SELECT id FROM _book WHERE id = ?");
+
+        assertThat(routeIn(true)).isEqualTo(ReadReplicaRoutingDataSource.Route.REPLICA);
+    }
+
+    @Test
+    void updatesReadAsResultSetPinReadsToPrimary() throws SQLException {
+        commitTransaction("UPDATE _book SET is_available = TRUE WHERE id IN (?) RETURNING id");
+
+        assertThat(routeIn(true)).isEqualTo(ReadReplicaRoutingDataSource.Route.PRIMARY);
+    }
+
+    @Test
+    void anonymousWritesNeverPinReadsToPrimary() throws SQLException {
+        when(statement.executeUpdate()).thenReturn(1);
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken(
+                "key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+        commitTransaction("INSERT INTO _refresh_token (token) VALUES (?)");
+
+        assertThat(routeIn(true)).isEqualTo(ReadReplicaRoutingDataSource.Route.REPLICA);
+        SecurityContextHolder.clearContext();
+        assertThat(routeIn(true)).isEqualTo(ReadReplicaRoutingDataSource.Route.REPLICA);
+    }
+
+    // Begins a transaction, as ReadReplicaJpaTransactionManager does, and routes its connection
+    private Object routeIn(boolean readOnly) {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+        routingDataSource.bindRoute(readOnly);
+        try {
+            return routingDataSource.determineCurrentLookupKey();
+        } finally {
+            routingDataSource.restoreRoute(null);
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+
+    // Runs one statement in a read-write transaction and commits it
+    private void commitTransaction(String sql) throws SQLException {
+        TransactionSynchronizationManager.initSynchronization();
+        PreparedStatement prepared = routingDataSource.getConnection().prepareStatement(sql);
+        if (sql.startsWith("SELECT") || sql.contains("RETURNING")) {
+            prepared.executeQuery();
+        } else {
+            prepared.executeUpdate();
+        }
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clear();
+    }
+}
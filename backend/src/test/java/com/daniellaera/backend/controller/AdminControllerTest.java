@@ -0,0 +1,185 @@
+package com.daniellaera.backend.controller;
+
+import com.daniellaera.backend.dao.BookBulkDeleteReport;
+import com.daniellaera.backend.dao.CacheRegionStatsDTO;
+import com.daniellaera.backend.dao.CacheStatsDTO;
+import com.daniellaera.backend.dao.request.BookBulkDeleteRequest;
+import com.daniellaera.backend.properties.BookExportProperties;
+import com.daniellaera.backend.service.BookBulkDeleteService;
+import com.daniellaera.backend.service.BookExportService;
+import com.daniellaera.backend.service.BookService;
+import com.daniellaera.backend.service.JwtService;
+import com.daniellaera.backend.service.SecondLevelCacheService;
+import com.daniellaera.backend.service.impl.UserDetailsServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.security.oauth2.client.autoconfigure.OAuth2ClientAutoConfiguration;
+import org.springframework.boot.security.oauth2.server.resource.autoconfigure.servlet.OAuth2ResourceServerAutoConfiguration;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.config.Customizer.withDefaults;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(
+        controllers = AdminController.class,
+        excludeAutoConfiguration = {
+                OAuth2ClientAutoConfiguration.class,
+                OAuth2ResourceServerAutoConfiguration.class
+        }
+)
+@Import(BookExportProperties.class)
+class AdminControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private SecondLevelCacheService secondLevelCacheService;
+
+    @MockitoBean
+    private BookService bookService;
+
+    @MockitoBean
+    private BookBulkDeleteService bookBulkDeleteService;
+
+    @MockitoBean
+    private BookExportService bookExportService;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @MockitoBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    @TestConfiguration
+    @EnableWebSecurity
+    static class TestSecurityConfig {
+        @Bean
+        public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+            http
+                    .csrf(AbstractHttpConfigurer::disable)
+                    .authorizeHttpRequests(auth -> auth
+                            .requestMatchers("/api/v3/admin/**").hasAuthority("ADMIN")
+                            .anyRequest().authenticated()
+                    )
+                    .httpBasic(withDefaults());
+
+            return http.build();
+        }
+    }
+
+    @Test
+    void getCacheStatistics_ReturnsRegionsForAdmin() throws Exception {
+        CacheRegionStatsDTO bookRegion = new CacheRegionStatsDTO(
+                "book", 90L, 10L, 10L, 1L, 0L, 9L);
+        when(secondLevelCacheService.getStatistics())
+                .thenReturn(new CacheStatsDTO(true, 90L, 10L, 10L, List.of(bookRegion)));
+
+        mockMvc.perform(get("/api/v3/admin/cache").with(user("admin").authorities(() -> "ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hitCount").value(90))
+                .andExpect(jsonPath("$.regions[0].region").value("book"))
+                .andExpect(jsonPath("$.regions[0].missCount").value(10));
+    }
+
+    @Test
+    void evictCache_ForbiddenForRegularUser() throws Exception {
+        mockMvc.perform(delete("/api/v3/admin/cache").with(user("reader").authorities(() -> "USER")))
+                .andExpect(status().isForbidden());
+
+        verify(secondLevelCacheService, never()).evictAll();
+    }
+
+    @Test
+    void reconcileBookCounters_ReturnsNumberOfCorrectedBooks() throws Exception {
+        when(bookService.reconcileCounters()).thenReturn(3);
+
+        mockMvc.perform(post("/api/v3/admin/books/reconcile-counters").with(user("admin").authorities(() -> "ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reconciled").value(3));
+    }
+
+    @Test
+    void bulkDeleteBooks_ReturnsRemovedRowCounts() throws Exception {
+        when(bookBulkDeleteService.deleteBooks(BookBulkDeleteRequest.builder().genre("Retired").build()))
+                .thenReturn(new BookBulkDeleteReport(120L, 40L, 35L, 7L));
+
+        mockMvc.perform(post("/api/v3/admin/books/bulk-delete")
+                        .with(user("admin").authorities(() -> "ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"genre\": \"Retired\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books").value(120))
+                .andExpect(jsonPath("$.borrows").value(7));
+    }
+
+    @Test
+    void bulkDeleteBooks_ForbiddenForRegularUser() throws Exception {
+        mockMvc.perform(post("/api/v3/admin/books/bulk-delete")
+                        .with(user("reader").authorities(() -> "USER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [1, 2]}"))
+                .andExpect(status().isForbidden());
+
+        verify(bookBulkDeleteService, never()).deleteBooks(any());
+    }
+
+    @Test
+    void exportBooks_StreamsNdjsonWithItsOwnTimeout() throws Exception {
+        when(bookExportService.exportBooks(any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/v3/admin/books/export").with(user("admin").authorities(() -> "ADMIN")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(30).toMillis());
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"books.ndjson\""))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+
+    @Test
+    void exportBooks_ForbiddenForRegularUser() throws Exception {
+        mockMvc.perform(get("/api/v3/admin/books/export").with(user("reader").authorities(() -> "USER")))
+                .andExpect(status().isForbidden());
+
+        verify(bookExportService, never()).exportBooks(any());
+    }
+}
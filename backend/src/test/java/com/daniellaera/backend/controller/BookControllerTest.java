@@ -1,6 +1,12 @@
 package com.daniellaera.backend.controller;
 
 import com.daniellaera.backend.dao.BookDTO;
+import com.daniellaera.backend.dao.BookExpansion;
+import com.daniellaera.backend.dao.BorrowDTO;
+import com.daniellaera.backend.dao.BookSummary;
+import com.daniellaera.backend.dao.BookVersion;
+import com.daniellaera.backend.dao.CatalogVersion;
+import com.daniellaera.backend.service.BookImportService;
 import com.daniellaera.backend.service.BookService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,14 +17,22 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tools.jackson.dataformat.cbor.CBORMapper;
 
 import java.util.Arrays;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -36,6 +50,9 @@ public class BookControllerTest {
     @Mock
     private BookService bookService;
 
+    @Mock
+    private BookImportService bookImportService;
+
     @BeforeEach
     public void setUp() {
         mockMvc = MockMvcBuilders.standaloneSetup(bookController)
@@ -65,6 +82,7 @@ public class BookControllerTest {
         Page<BookDTO> bookDTOPage = new PageImpl<>(Arrays.asList(bookDTO1, bookDTO2), pageable, 2);
 
         // Mock the service response
+        given(bookService.getCatalogVersion()).willReturn(new CatalogVersion(2L, new Date()));
         given(bookService.getAllBooks(any(Pageable.class))).willReturn(bookDTOPage);
 
         // Perform the GET request with pagination params
@@ -83,6 +101,219 @@ public class BookControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.sort").exists());
     }
 
+    @Test
+    void getAllBooks_NegotiatesBinaryEncodingsAndDefaultsToJson() throws Exception {
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setId(1);
+        bookDTO.setTitle("Title");
+        given(bookService.getCatalogVersion()).willReturn(new CatalogVersion(1L, new Date()));
+        given(bookService.getAllBooks(any(Pageable.class))).willReturn(new PageImpl<>(List.of(bookDTO), PageRequest.of(0, 5), 1));
+
+        byte[] cbor = mockMvc.perform(get("/api/v3/book").accept(MediaType.valueOf("application/cbor")))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(new CBORMapper().readTree(cbor).at("/content/0/title").asString()).isEqualTo("Title");
+
+        mockMvc.perform(get("/api/v3/book").accept(MediaType.valueOf("application/x-jackson-smile")))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType("application/x-jackson-smile"));
+
+        mockMvc.perform(get("/api/v3/book").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void getBookSummaries() throws Exception {
+        BookSummary summary = new BookSummary(1, "Title", "Thomas H. Cormen", "Fiction", 4.0, true, 2, 3, "John Doe");
+        Pageable pageable = PageRequest.of(0, 5);
+        given(bookService.getCatalogVersion()).willReturn(new CatalogVersion(1L, new Date()));
+        given(bookService.getBookSummaries(any(Pageable.class))).willReturn(new PageImpl<>(List.of(summary), pageable, 1));
+
+        mockMvc.perform(get("/api/v3/book/summary")
+                        .param("page", "0")
+                        .param("size", "5")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].title").value("Title"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].creatorFullName").value("John Doe"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].comments").doesNotExist());
+    }
+
+    @Test
+    void getBookByIsbn() throws Exception {
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setId(1);
+        bookDTO.setIsbn("0-13-235088-2");
+        bookDTO.setIsbn13("9780132350884");
+        given(bookService.findBookByIsbn("978-0132350884")).willReturn(Optional.of(bookDTO));
+        given(bookService.findBookByIsbn("9780000000002")).willReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v3/book/isbn/978-0132350884").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.isbn13").value("9780132350884"));
+        mockMvc.perform(get("/api/v3/book/isbn/9780000000002").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getSimilarBooks() throws Exception {
+        BookSummary similar = new BookSummary(2, "Clean Code", "Robert C. Martin", "Programming", 4.0, true, 0, 2, "John Doe");
+        given(bookService.findSimilarBooks(1, 5)).willReturn(Optional.of(List.of(similar)));
+        given(bookService.findSimilarBooks(99, 10)).willReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v3/book/1/similar?limit=5").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(2));
+        mockMvc.perform(get("/api/v3/book/99/similar").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getAllBooks_ReturnsNotModifiedWhenCatalogUnchanged() throws Exception {
+        CatalogVersion catalogVersion = new CatalogVersion(2L, new Date());
+        given(bookService.getCatalogVersion()).willReturn(catalogVersion);
+
+        mockMvc.perform(get("/api/v3/book")
+                        .header(HttpHeaders.IF_NONE_MATCH, catalogVersion.toETag())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified());
+
+        verify(bookService, never()).getAllBooks(any(Pageable.class));
+    }
+
+    @Test
+    void getBook_ReturnsETagAndThenNotModified() throws Exception {
+        BookVersion version = new BookVersion(1, 3L, new Date());
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setId(1);
+        bookDTO.setTitle("Title");
+        given(bookService.findBookVersion(1)).willReturn(Optional.of(version));
+        given(bookService.findBookById(1)).willReturn(Optional.of(bookDTO));
+
+        mockMvc.perform(get("/api/v3/book/1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-3\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.title").value("Title"));
+
+        mockMvc.perform(get("/api/v3/book/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-3\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified());
+
+        // the full representation is only built for the first request
+        verify(bookService, times(1)).findBookById(1);
+    }
+
+    @Test
+    void getBook_ETagDependsOnTheNegotiatedEncoding() throws Exception {
+        BookVersion version = new BookVersion(1, 3L, new Date());
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setId(1);
+        given(bookService.findBookVersion(1)).willReturn(Optional.of(version));
+        given(bookService.findBookById(1)).willReturn(Optional.of(bookDTO));
+
+        mockMvc.perform(get("/api/v3/book/1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-3\""))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+        // a JSON validator does not validate the CBOR representation
+        mockMvc.perform(get("/api/v3/book/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-3\"")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-3-cbor\""))
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR));
+
+        mockMvc.perform(get("/api/v3/book/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-3-cbor\"")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    void getBook_ETagDependsOnTheSelectedFields() throws Exception {
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setId(1);
+        bookDTO.setTitle("Title");
+        given(bookService.findBookVersion(1)).willReturn(Optional.of(new BookVersion(1, 3L, new Date())));
+        given(bookService.findBookById(1, EnumSet.noneOf(BookExpansion.class))).willReturn(Optional.of(bookDTO));
+
+        // the validator of the full book does not validate a sparse copy
+        String sparseETag = mockMvc.perform(get("/api/v3/book/1")
+                        .param("fields", "title")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-3\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.title").value("Title"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(sparseETag).startsWith("\"1-3-").isNotEqualTo("\"1-3\"");
+
+        // the same selection, in another order, is the same representation
+        mockMvc.perform(get("/api/v3/book/1")
+                        .param("fields", "id,title")
+                        .header(HttpHeaders.IF_NONE_MATCH, sparseETag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified());
+
+        given(bookService.findBookById(1, EnumSet.of(BookExpansion.BORROW))).willReturn(Optional.of(bookDTO));
+        String expandedETag = mockMvc.perform(get("/api/v3/book/1")
+                        .param("fields", "title")
+                        .param("expand", "borrow")
+                        .header(HttpHeaders.IF_NONE_MATCH, sparseETag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(expandedETag).isNotEqualTo(sparseETag);
+    }
+
+    @Test
+    void getAllBooks_ReturnsOnlyRequestedFields() throws Exception {
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setId(1);
+        bookDTO.setTitle("Title");
+        bookDTO.setAuthor("John Doe");
+        bookDTO.setIsAvailable(true);
+        given(bookService.getCatalogVersion()).willReturn(new CatalogVersion(1L, new Date()));
+        given(bookService.getAllBooks(any(Pageable.class), eq(EnumSet.noneOf(BookExpansion.class))))
+                .willReturn(new PageImpl<>(List.of(bookDTO), PageRequest.of(0, 20), 1));
+
+        mockMvc.perform(get("/api/v3/book")
+                        .param("fields", "title,isAvailable")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].id").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].title").value("Title"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].isAvailable").value(true))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].author").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].comments").doesNotExist());
+
+        verify(bookService, never()).getAllBooks(any(Pageable.class));
+    }
+
+    @Test
+    void getBook_LoadsOnlyExpandedAssociations() throws Exception {
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setId(1);
+        bookDTO.setTitle("Title");
+        bookDTO.setBorrow(BorrowDTO.builder().bookId(1).userId(2).isReturned(false).build());
+        given(bookService.findBookVersion(1)).willReturn(Optional.of(new BookVersion(1, 0L, new Date())));
+        given(bookService.findBookById(1, EnumSet.of(BookExpansion.BORROW))).willReturn(Optional.of(bookDTO));
+
+        mockMvc.perform(get("/api/v3/book/1")
+                        .param("expand", "borrow")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.title").value("Title"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.borrow.userId").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.comments").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.ratings").doesNotExist());
+    }
+
     @Test
     void createBook_ReturnsUnauthorized() throws Exception {
         BookDTO bookDTO = new BookDTO();
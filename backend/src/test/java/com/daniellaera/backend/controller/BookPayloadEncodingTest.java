@@ -0,0 +1,159 @@
+package com.daniellaera.backend.controller;
+
+import com.daniellaera.backend.dao.BookDTO;
+import com.daniellaera.backend.dao.BorrowDTO;
+import com.daniellaera.backend.dao.CatalogVersion;
+import com.daniellaera.backend.dao.CommentDTO;
+import com.daniellaera.backend.dao.RatingDTO;
+import com.daniellaera.backend.dao.UserDTO;
+import com.daniellaera.backend.service.BookImportService;
+import com.daniellaera.backend.service.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Negotiates the encodings offered by /api/v3/book on a full page of books (the default
+ * expansions: comments, ratings and borrow) and decodes each payload back into the page.
+ */
+@ExtendWith(MockitoExtension.class)
+class BookPayloadEncodingTest {
+
+    private static final int PAGE_SIZE = 50;
+    private static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+    private static final TypeReference<List<BookDTO>> BOOK_LIST = new TypeReference<>() {
+    };
+
+    @InjectMocks
+    private BookController bookController;
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private BookService bookService;
+
+    @Mock
+    private BookImportService bookImportService;
+
+    private List<BookDTO> page;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(bookController)
+                .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
+                .build();
+        page = samplePage();
+        given(bookService.getCatalogVersion()).willReturn(new CatalogVersion((long) PAGE_SIZE, new Date()));
+        given(bookService.getAllBooks(any(Pageable.class))).willReturn(new PageImpl<>(page, PageRequest.of(0, PAGE_SIZE), PAGE_SIZE));
+    }
+
+    @Test
+    void cborIsServedWhenAcceptedAndDecodesToThePage() throws Exception {
+        byte[] payload = fetch(get("/api/v3/book").accept(MediaType.APPLICATION_CBOR), MediaType.APPLICATION_CBOR);
+
+        assertThat(decode(new CBORMapper(), payload)).isEqualTo(page);
+        assertThat(payload.length).isLessThan(fetch(get("/api/v3/book"), MediaType.APPLICATION_JSON).length);
+    }
+
+    @Test
+    void smileIsServedWhenAcceptedAndDecodesToThePage() throws Exception {
+        byte[] payload = fetch(get("/api/v3/book").accept(APPLICATION_SMILE), APPLICATION_SMILE);
+
+        assertThat(decode(new SmileMapper(), payload)).isEqualTo(page);
+        assertThat(payload.length).isLessThan(fetch(get("/api/v3/book"), MediaType.APPLICATION_JSON).length);
+    }
+
+    @Test
+    void jsonStaysTheDefault() throws Exception {
+        assertThat(decode(new JsonMapper(), fetch(get("/api/v3/book"), MediaType.APPLICATION_JSON))).isEqualTo(page);
+        assertThat(decode(new JsonMapper(), fetch(get("/api/v3/book").accept(MediaType.ALL), MediaType.APPLICATION_JSON)))
+                .isEqualTo(page);
+        // the most preferred type wins over the order of the converters
+        fetch(get("/api/v3/book").header("Accept", "application/cbor;q=0.5, application/json"), MediaType.APPLICATION_JSON);
+    }
+
+    private byte[] fetch(MockHttpServletRequestBuilder request, MediaType expected) throws Exception {
+        return mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(expected))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    private static List<BookDTO> decode(ObjectMapper mapper, byte[] payload) {
+        return mapper.convertValue(mapper.readTree(payload).get("content"), BOOK_LIST);
+    }
+
+    private static List<BookDTO> samplePage() {
+        String[] genres = {"Fiction", "Programming", "Technology", "History"};
+        List<BookDTO> books = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            BookDTO book = new BookDTO();
+            book.setId(1000 + i);
+            book.setTitle("The Pragmatic Programmer, volume " + i);
+            book.setIsbn("978-0201616" + String.format("%03d", i));
+            book.setIsbn13("9780201616" + String.format("%03d", i));
+            book.setDescription("Your journey to mastery, updated for modern development. Edition " + i + ".");
+            book.setAuthor("Andy Hunt & Dave Thomas");
+            book.setGenre(genres[i % genres.length]);
+            book.setCreatedDate(new Date(1_700_000_000_000L + i * 86_400_000L));
+            book.setPublishedDate(new Date(946_684_800_000L + i * 86_400_000L));
+            book.setAverageRating(3.5 + (i % 4) * 0.25);
+            book.setCommentCount(5);
+            book.setRatingCount(5);
+            book.setIsAvailable(i % 3 != 0);
+
+            UserDTO creator = new UserDTO();
+            creator.setId(i % 7);
+            creator.setFullName("Librarian " + (i % 7));
+            book.setUserDTO(creator);
+
+            List<CommentDTO> comments = new ArrayList<>();
+            List<RatingDTO> ratings = new ArrayList<>();
+            for (int c = 0; c < 5; c++) {
+                CommentDTO comment = new CommentDTO();
+                comment.setContent("Comment " + c + ": a practical read, worth it for the chapter on tracer bullets.");
+                comment.setAuthorFullName("Reader " + c);
+                comments.add(comment);
+
+                RatingDTO rating = new RatingDTO();
+                rating.setScore(1 + (i + c) % 5);
+                rating.setUserId(c);
+                ratings.add(rating);
+            }
+            book.setComments(comments);
+            book.setRatings(ratings);
+            if (i % 3 == 0) {
+                book.setBorrow(new BorrowDTO(book.getId(), 3, new Date(1_730_000_000_000L), new Date(1_731_000_000_000L), false));
+            }
+            books.add(book);
+        }
+        return books;
+    }
+}
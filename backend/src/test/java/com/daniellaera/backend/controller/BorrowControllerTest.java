@@ -1,6 +1,10 @@
 package com.daniellaera.backend.controller;
 
 import com.daniellaera.backend.dao.BorrowDTO;
+import com.daniellaera.backend.dao.BorrowHistoryEntry;
+import com.daniellaera.backend.dao.BorrowPeriod;
+import com.daniellaera.backend.dao.CursorPage;
+import com.daniellaera.backend.exception.BorrowConflictException;
 import com.daniellaera.backend.service.BorrowService;
 import com.daniellaera.backend.service.JwtService;
 import com.daniellaera.backend.service.impl.UserDetailsServiceImpl;
@@ -20,13 +24,18 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.util.Date;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.config.Customizer.withDefaults;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -130,4 +139,78 @@ class BorrowControllerTest {
                         .with(csrf()))
                 .andExpect(status().isUnauthorized());
     }
-}
\ No newline at end of file
+
+    @Test
+    void createBorrow_ConflictWhenAlreadyBorrowed() throws Exception {
+        when(borrowService.createBorrowByBookIdAndUserId(anyInt(), any(String.class), any(BorrowDTO.class)))
+                .thenThrow(new BorrowConflictException("Book is already reserved for an overlapping period."));
+
+        String requestBody = """
+                {
+                  "borrowStartDate": "2025-12-01T10:00:00.000Z",
+                  "borrowEndDate": "2025-12-31T10:00:00.000Z"
+                }
+                """;
+
+        mockMvc.perform(post("/api/v3/borrow/{bookId}", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody)
+                        .with(SecurityMockMvcRequestPostProcessors.user("john.doe@example.com").roles("USER")))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void createBorrow_ServerErrorOnUnexpectedState() throws Exception {
+        when(borrowService.createBorrowByBookIdAndUserId(anyInt(), any(String.class), any(BorrowDTO.class)))
+                .thenThrow(new IllegalStateException("Unexpected"));
+
+        String requestBody = """
+                {
+                  "borrowStartDate": "2025-12-01T10:00:00.000Z",
+                  "borrowEndDate": "2025-12-31T10:00:00.000Z"
+                }
+                """;
+
+        mockMvc.perform(post("/api/v3/borrow/{bookId}", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody)
+                        .with(SecurityMockMvcRequestPostProcessors.user("john.doe@example.com").roles("USER")))
+                .andExpect(status().isInternalServerError());
+    }
+
+    @Test
+    void getMyBorrows_ReturnsCallerHistoryPage() throws Exception {
+        BorrowHistoryEntry entry = new BorrowHistoryEntry(12, 2, "Clean Code", new Date(), new Date(), false);
+        when(borrowService.scrollBorrowHistory(eq("john.doe@example.com"), isNull(), eq(20)))
+                .thenReturn(new CursorPage<>(List.of(entry), "next", true));
+
+        mockMvc.perform(get("/api/v3/borrow/me")
+                        .with(SecurityMockMvcRequestPostProcessors.user("john.doe@example.com").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(12))
+                .andExpect(jsonPath("$.content[0].bookTitle").value("Clean Code"))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasNext").value(true));
+    }
+
+    @Test
+    void getMyBorrows_Unauthenticated() throws Exception {
+        mockMvc.perform(get("/api/v3/borrow/me"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void getBookingCalendar_ReturnsBookedRangesOfTheWindow() throws Exception {
+        BorrowPeriod period = new BorrowPeriod(new Date(), new Date());
+        when(borrowService.getBookingCalendar(1, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 3, 31)))
+                .thenReturn(List.of(period));
+
+        mockMvc.perform(get("/api/v3/borrow/{bookId}/calendar", 1)
+                        .param("from", "2026-01-01")
+                        .param("to", "2026-03-31")
+                        .with(SecurityMockMvcRequestPostProcessors.user("john.doe@example.com").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].borrowStartDate").isNotEmpty())
+                .andExpect(jsonPath("$[0].borrowEndDate").isNotEmpty());
+    }
+}
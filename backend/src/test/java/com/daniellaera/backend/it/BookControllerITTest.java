@@ -135,6 +135,17 @@ public class BookControllerITTest {
                 .andExpect(jsonPath("$.content[1].title").value("Title 2"));
     }
 
+    @Test
+    void searchBooks_ReturnsMatchingBooks() throws Exception {
+        mockMvc.perform(get("/api/v3/book/search")
+                        .param("q", "bloch")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].title").value("Title 2"))
+                .andExpect(jsonPath("$.content[0].author").value("Joshua Bloch"));
+    }
+
     @Test
     void createBook_CreatesBookSuccessfully() throws Exception {
         String bookJson = """
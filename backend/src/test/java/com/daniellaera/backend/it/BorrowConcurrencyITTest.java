@@ -0,0 +1,159 @@
+package com.daniellaera.backend.it;
+
+import com.daniellaera.backend.dao.BorrowDTO;
+import com.daniellaera.backend.dao.BorrowPeriod;
+import com.daniellaera.backend.exception.BorrowConflictException;
+import com.daniellaera.backend.model.Book;
+import com.daniellaera.backend.model.Role;
+import com.daniellaera.backend.model.User;
+import com.daniellaera.backend.repository.BookRepository;
+import com.daniellaera.backend.repository.UserRepository;
+import com.daniellaera.backend.service.BorrowService;
+import com.daniellaera.backend.utils.TestcontainersConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class BorrowConcurrencyITTest {
+
+    private static final int BORROWERS = 200;
+
+    @Autowired
+    private BorrowService borrowService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Book book;
+    private List<User> borrowers;
+
+    @BeforeEach
+    void setup() {
+        bookRepository.deleteAll();
+        userRepository.deleteAll();
+
+        borrowers = new ArrayList<>();
+        for (int i = 0; i < BORROWERS; i++) {
+            User user = new User();
+            user.setEmail("reader" + i + "@example.com");
+            user.setPassword("password");
+            user.setRole(Role.USER);
+            borrowers.add(user);
+        }
+        borrowers = userRepository.saveAll(borrowers);
+
+        book = new Book();
+        book.setTitle("Release Day");
+        book.setIsbn("978-0000000001");
+        book.setAuthor("Popular Author");
+        book.setGenre("Fiction");
+        book.setPublishedDate(new Date());
+        book.setCreatedDate(new Date());
+        book.setCreatedBy(borrowers.getFirst());
+        book = bookRepository.save(book);
+    }
+
+    @Test
+    void concurrentBorrows_ShouldLetExactlyOneReaderTakeTheCopy() throws Exception {
+        BorrowDTO request = BorrowDTO.builder()
+                .borrowStartDate(new Date())
+                .borrowEndDate(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(14)))
+                .build();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> attempts = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(BORROWERS)) {
+            for (User borrower : borrowers) {
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        borrowService.createBorrowByBookIdAndUserId(book.getId(), borrower.getEmail(), request);
+                        return true;
+                    } catch (BorrowConflictException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int borrowed = 0;
+            for (Future<Boolean> attempt : attempts) {
+                if (attempt.get(60, TimeUnit.SECONDS)) {
+                    borrowed++;
+                }
+            }
+            assertThat(borrowed).isEqualTo(1);
+        }
+
+        Integer openBorrows = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM _borrow WHERE book_id = ? AND NOT is_returned", Integer.class, book.getId());
+        assertThat(openBorrows).isEqualTo(1);
+        Integer currentBorrow = jdbcTemplate.queryForObject(
+                "SELECT current_borrow_id FROM _book WHERE id = ?", Integer.class, book.getId());
+        Integer openBorrow = jdbcTemplate.queryForObject(
+                "SELECT id FROM _borrow WHERE book_id = ? AND NOT is_returned", Integer.class, book.getId());
+        assertThat(currentBorrow).isEqualTo(openBorrow);
+        assertThat(bookRepository.findById(book.getId())).get()
+                .extracting(Book::getIsAvailable).isEqualTo(false);
+    }
+
+    @Test
+    void reservations_ShouldRejectOnlyOverlappingRanges() {
+        LocalDate today = LocalDate.now();
+        borrowService.createBorrowByBookIdAndUserId(book.getId(), borrowers.get(0).getEmail(), range(today, today.plusDays(6)));
+        borrowService.createBorrowByBookIdAndUserId(book.getId(), borrowers.get(1).getEmail(), range(today.plusDays(7), today.plusDays(13)));
+
+        assertThatThrownBy(() -> borrowService.createBorrowByBookIdAndUserId(
+                book.getId(), borrowers.get(2).getEmail(), range(today.plusDays(13), today.plusDays(20))))
+                .isInstanceOf(BorrowConflictException.class);
+
+        List<BorrowPeriod> calendar = borrowService.getBookingCalendar(book.getId(), today, today.plusDays(30));
+        assertThat(calendar).hasSize(2);
+        // only the borrow starting today takes the copy, the reservation waits for its first day
+        assertThat(bookRepository.findById(book.getId())).get()
+                .extracting(Book::getIsAvailable).isEqualTo(false);
+    }
+
+    @Test
+    void getBorrowByBookId_ShouldReturnTheCurrentBorrowNextToAReservation() {
+        LocalDate today = LocalDate.now();
+        borrowService.createBorrowByBookIdAndUserId(book.getId(), borrowers.get(0).getEmail(), range(today, today.plusDays(6)));
+        borrowService.createBorrowByBookIdAndUserId(book.getId(), borrowers.get(1).getEmail(), range(today.plusDays(10), today.plusDays(13)));
+
+        BorrowDTO current = borrowService.getBorrowByBookId(book.getId());
+
+        assertThat(current.getUserId()).isEqualTo(borrowers.get(0).getId());
+        assertThat(current.getIsReturned()).isFalse();
+    }
+
+    private static BorrowDTO range(LocalDate start, LocalDate end) {
+        return BorrowDTO.builder()
+                .borrowStartDate(Date.from(start.atStartOfDay(ZoneId.systemDefault()).toInstant()))
+                .borrowEndDate(Date.from(end.atStartOfDay(ZoneId.systemDefault()).toInstant()))
+                .build();
+    }
+}
@@ -0,0 +1,103 @@
+package com.daniellaera.backend.it;
+
+import com.daniellaera.backend.model.Book;
+import com.daniellaera.backend.model.Role;
+import com.daniellaera.backend.model.User;
+import com.daniellaera.backend.repository.BookRepository;
+import com.daniellaera.backend.repository.UserRepository;
+import com.daniellaera.backend.service.BorrowService;
+import com.daniellaera.backend.utils.TestcontainersConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A chunk size of 2 makes the five overdue borrows span three chunks
+@SpringBootTest(properties = "borrow.expiry.chunk-size=2")
+@Import(TestcontainersConfiguration.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class BorrowExpiryITTest {
+
+    @Autowired
+    private BorrowService borrowService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User reader;
+    private List<Book> books;
+
+    @BeforeEach
+    void setup() {
+        bookRepository.deleteAll();
+        userRepository.deleteAll();
+
+        reader = new User();
+        reader.setEmail("reader@example.com");
+        reader.setPassword("password");
+        reader.setRole(Role.USER);
+        reader = userRepository.save(reader);
+
+        books = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Book book = new Book();
+            book.setTitle("Book " + i);
+            book.setIsbn("978-000000000" + i);
+            book.setAuthor("Author");
+            book.setGenre("Fiction");
+            book.setPublishedDate(new java.util.Date());
+            book.setCreatedDate(new java.util.Date());
+            book.setCreatedBy(reader);
+            book.setIsAvailable(false);
+            books.add(book);
+        }
+        books = bookRepository.saveAll(books);
+    }
+
+    @Test
+    void expireOverdueBorrows_ShouldCloseOverdueBorrowsAndReleaseTheirBooks() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 5; i++) {
+            insertBorrow(books.get(i), today.minusDays(20), today.minusDays(i + 1));
+        }
+        insertBorrow(books.get(5), today.minusDays(2), today.plusDays(5));
+
+        assertThat(borrowService.expireOverdueBorrows()).isEqualTo(5);
+
+        Integer openBorrows = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM _borrow WHERE NOT is_returned", Integer.class);
+        assertThat(openBorrows).isEqualTo(1);
+        Integer pointedBooks = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM _book WHERE current_borrow_id IS NOT NULL", Integer.class);
+        assertThat(pointedBooks).isEqualTo(1);
+        for (int i = 0; i < 5; i++) {
+            assertThat(bookRepository.findById(books.get(i).getId())).get()
+                    .extracting(Book::getIsAvailable).isEqualTo(true);
+        }
+        assertThat(bookRepository.findById(books.get(5).getId())).get()
+                .extracting(Book::getIsAvailable).isEqualTo(false);
+
+        // nothing left to expire on a second run
+        assertThat(borrowService.expireOverdueBorrows()).isZero();
+    }
+
+    private void insertBorrow(Book book, LocalDate start, LocalDate end) {
+        jdbcTemplate.update("INSERT INTO _borrow (book_id, user_id, borrow_start_date, borrow_end_date, is_returned) " +
+                "VALUES (?, ?, ?, ?, FALSE)", book.getId(), reader.getId(), Date.valueOf(start), Date.valueOf(end));
+        jdbcTemplate.update("UPDATE _book SET current_borrow_id = (SELECT max(id) FROM _borrow WHERE book_id = ?) WHERE id = ?",
+                book.getId(), book.getId());
+    }
+}
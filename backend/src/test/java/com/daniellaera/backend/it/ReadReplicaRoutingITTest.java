@@ -0,0 +1,119 @@
+package com.daniellaera.backend.it;
+
+import com.daniellaera.backend.dao.BookDTO;
+import com.daniellaera.backend.dao.BookExpansion;
+import com.daniellaera.backend.model.Book;
+import com.daniellaera.backend.model.User;
+import com.daniellaera.backend.repository.BookRepository;
+import com.daniellaera.backend.repository.UserRepository;
+import com.daniellaera.backend.service.BookService;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.lifecycle.Startables;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two independent PostgreSQL containers stand in for a primary and its replica. Nothing replicates
+ * between them, so a row written through the application only exists on the primary, and whatever
+ * a read returns tells which database served it.
+ */
+@SpringBootTest(properties = "datasource.replica.sticky-window=3s")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class ReadReplicaRoutingITTest {
+
+    private static final PostgreSQLContainer<?> primary = new PostgreSQLContainer<>(DockerImageName.parse("postgres:17"));
+    private static final PostgreSQLContainer<?> replica = new PostgreSQLContainer<>(DockerImageName.parse("postgres:17"));
+
+    @DynamicPropertySource
+    static void dataSources(DynamicPropertyRegistry registry) {
+        Startables.deepStart(primary, replica).join();
+        // the application migrates the primary only
+        Flyway.configure()
+                .dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())
+                .load()
+                .migrate();
+
+        registry.add("spring.datasource.url", primary::getJdbcUrl);
+        registry.add("spring.datasource.username", primary::getUsername);
+        registry.add("spring.datasource.password", primary::getPassword);
+        registry.add("datasource.replica.url", replica::getJdbcUrl);
+        registry.add("datasource.replica.username", replica::getUsername);
+        registry.add("datasource.replica.password", replica::getPassword);
+    }
+
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final JdbcTemplate replicaJdbcTemplate = new JdbcTemplate(
+            new DriverManagerDataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword()));
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void writerReadsItsWriteFromPrimaryThenFromReplicaAfterTheWindow() throws InterruptedException {
+        User writer = userRepository.findByEmail("alice@example.com").orElseThrow();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(writer.getEmail(), null, List.of()));
+
+        Book book = new Book();
+        book.setTitle("Written to the primary");
+        book.setCreatedBy(writer);
+        book.setCreatedDate(new Date());
+        book = bookRepository.save(book);
+        // the replica lags behind: it still has an older version of the row
+        replicaJdbcTemplate.update("INSERT INTO _book (id, title, created_by, is_available, version) VALUES (?, ?, ?, TRUE, 0)",
+                book.getId(), "Older replica copy", writer.getId());
+
+        // inside the sticky window the writer reads from the primary; the cache is cleared so the database answers
+        entityManagerFactory.getCache().evictAll();
+        assertThat(titleOf(book.getId())).isEqualTo("Written to the primary");
+
+        // any other client reads from the replica right away
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("bob@example.com", null, List.of()));
+        entityManagerFactory.getCache().evictAll();
+        assertThat(titleOf(book.getId())).isEqualTo("Older replica copy");
+        // and the lagging row is not put into the shared second-level cache
+        assertThat(entityManagerFactory.getCache().contains(Book.class, book.getId())).isFalse();
+
+        // once the window has passed, the writer reads from the replica too
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(writer.getEmail(), null, List.of()));
+        Thread.sleep(3_500);
+        entityManagerFactory.getCache().evictAll();
+        assertThat(titleOf(book.getId())).isEqualTo("Older replica copy");
+    }
+
+    private String titleOf(Integer bookId) {
+        return bookService.findBookById(bookId, EnumSet.noneOf(BookExpansion.class))
+                .map(BookDTO::getTitle)
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,226 @@
+package com.daniellaera.backend.repository;
+
+import com.daniellaera.backend.dao.BookBulkDeleteReport;
+import com.daniellaera.backend.dao.BookDTO;
+import com.daniellaera.backend.dao.BookExpansion;
+import com.daniellaera.backend.dao.request.BookBulkDeleteRequest;
+import com.daniellaera.backend.model.*;
+import com.daniellaera.backend.properties.BookBulkDeleteProperties;
+import com.daniellaera.backend.properties.BookSimilarityProperties;
+import com.daniellaera.backend.properties.BookTrendingProperties;
+import com.daniellaera.backend.service.impl.BookBulkDeleteServiceImpl;
+import com.daniellaera.backend.service.impl.BookFacetCounter;
+import com.daniellaera.backend.service.impl.BookServiceImpl;
+import com.daniellaera.backend.service.impl.BookSimilarityIndex;
+import com.daniellaera.backend.service.impl.BookSuggestionIndex;
+import com.daniellaera.backend.service.impl.BookTrendingTracker;
+import com.daniellaera.backend.utils.TestcontainersConfiguration;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({TestcontainersConfiguration.class, BookServiceImpl.class, BookSuggestionIndex.class, BookFacetCounter.class,
+        BookSimilarityIndex.class, BookSimilarityProperties.class, BookTrendingTracker.class, BookTrendingProperties.class,
+        BookBulkDeleteServiceImpl.class, BookBulkDeleteProperties.class})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class BookRepositoryTest {
+
+    private static final int BOOKS = 30;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    BookServiceImpl bookService;
+
+    @Autowired
+    BookBulkDeleteServiceImpl bookBulkDeleteService;
+
+    @Autowired
+    BookBulkDeleteProperties bookBulkDeleteProperties;
+
+    private Statistics statistics;
+    private Integer firstBookId;
+    private Integer creatorId;
+
+    @BeforeEach
+    void setUp() {
+        User creator = entityManager.persist(user("creator@example.com"));
+        User reader = entityManager.persist(user("reader@example.com"));
+        User critic = entityManager.persist(user("critic@example.com"));
+        creatorId = creator.getId();
+
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = new Book();
+            book.setTitle("Book " + i);
+            book.setAuthor("Author " + i);
+            book.setIsbn("978-00000000" + i);
+            book.setGenre("Fiction");
+            book.setPublishedDate(new Date());
+            book.setCreatedBy(creator);
+            book.setAverageRating(0.0);
+            entityManager.persist(book);
+
+            entityManager.persist(Comment.builder().content("Great").book(book).user(reader).build());
+            entityManager.persist(Comment.builder().content("Meh").book(book).user(critic).build());
+            entityManager.persist(Rating.builder().score(4).book(book).user(reader).build());
+            entityManager.persist(Rating.builder().score(2).book(book).user(critic).build());
+            entityManager.persist(Borrow.builder().book(book).user(reader).isReturned(false)
+                    .borrowStartDate(new Date()).borrowEndDate(new Date()).build());
+
+            if (firstBookId == null) {
+                firstBookId = book.getId();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void bookPage_ShouldLoadInFixedNumberOfStatements() {
+        Page<BookDTO> page = bookService.getAllBooks(PageRequest.of(0, 20));
+        long pageStatements = statistics.getPrepareStatementCount();
+
+        assertThat(page.getContent()).hasSize(20);
+        assertThat(page.getContent()).allSatisfy(book -> {
+            assertThat(book.getComments()).extracting("authorFullName").containsExactlyInAnyOrder("Test critic", "Test reader");
+            assertThat(book.getRatings()).hasSize(2);
+            assertThat(book.getBorrow()).isNotNull();
+            assertThat(book.getUserDTO().getFullName()).isEqualTo("Test creator");
+        });
+        // page + count + borrows + comments + comment authors + ratings
+        assertThat(pageStatements).isLessThanOrEqualTo(6);
+
+        entityManager.clear();
+        statistics.clear();
+        bookService.getAllBooks(PageRequest.of(1, 5));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(pageStatements);
+    }
+
+    @Test
+    void bookPage_ShouldNotLoadUnexpandedAssociations() {
+        Page<BookDTO> page = bookService.getAllBooks(PageRequest.of(0, 20), EnumSet.noneOf(BookExpansion.class));
+
+        assertThat(page.getContent()).hasSize(20);
+        assertThat(page.getContent()).allSatisfy(book -> assertThat(book.getComments()).isNull());
+        // page with creators + count
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    @Test
+    void bookDetail_ShouldLoadInFixedNumberOfStatements() {
+        Optional<BookDTO> book = bookService.findBookById(firstBookId);
+
+        assertThat(book).isPresent();
+        assertThat(book.get().getComments()).hasSize(2);
+        assertThat(book.get().getRatings()).hasSize(2);
+        assertThat(book.get().getBorrow()).isNotNull();
+        // book with creator, comments and their authors + ratings + borrows
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void bulkDelete_ShouldRemoveBooksAndDependentsInChunks() {
+        bookBulkDeleteProperties.setChunkSize(7);
+
+        BookBulkDeleteReport report = bookBulkDeleteService.deleteBooks(
+                BookBulkDeleteRequest.builder().genre("Fiction").createdBy(creatorId).build());
+
+        assertThat(report).isEqualTo(new BookBulkDeleteReport((long) BOOKS, 2L * BOOKS, 2L * BOOKS, (long) BOOKS));
+        assertThat(bookRepository.count()).isZero();
+        // set-based, no entity is ever loaded
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void bulkDelete_ShouldOnlyRemoveListedBooks() {
+        BookBulkDeleteReport report = bookBulkDeleteService.deleteBooks(
+                BookBulkDeleteRequest.builder().ids(List.of(firstBookId, firstBookId + 1, -1)).build());
+
+        assertThat(report.getBooks()).isEqualTo(2);
+        assertThat(report.getComments()).isEqualTo(4);
+        assertThat(bookRepository.count()).isEqualTo(BOOKS - 2);
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFirstName("Test");
+        user.setLastName(email.substring(0, email.indexOf('@')));
+        user.setPassword("password");
+        user.setRole(Role.USER);
+        return user;
+    }
+
+    @Test
+    void reconcileCounters_ShouldOnlyRewriteDriftedBooks() {
+        // setUp persists comments and ratings directly, so every counter starts out stale
+        assertThat(bookRepository.reconcileCounters()).isEqualTo(BOOKS);
+        assertThat(bookRepository.reconcileCounters()).isZero();
+        entityManager.clear();
+
+        Book book = entityManager.find(Book.class, firstBookId);
+        assertThat(book.getCommentCount()).isEqualTo(2);
+        assertThat(book.getRatingCount()).isEqualTo(2);
+        assertThat(book.getRatingSum()).isEqualTo(6L);
+        assertThat(book.getAverageRating()).isEqualTo(5.0);
+    }
+
+    @Test
+    void reconcileCounters_ShouldRecomputeDriftedAverage() {
+        bookRepository.reconcileCounters();
+        entityManager.clear();
+        entityManager.find(Book.class, firstBookId).setAverageRating(1.0);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(bookRepository.reconcileCounters()).isEqualTo(1);
+        entityManager.clear();
+
+        assertThat(entityManager.find(Book.class, firstBookId).getAverageRating()).isEqualTo(5.0);
+    }
+
+    @Test
+    void counterIncrements_ShouldUpdateCountsAndAverageInPlace() {
+        bookRepository.reconcileCounters();
+        entityManager.clear();
+        Long version = entityManager.find(Book.class, firstBookId).getVersion();
+        entityManager.clear();
+
+        bookRepository.incrementCommentCount(firstBookId);
+        bookRepository.addRating(firstBookId, 1);
+        entityManager.clear();
+
+        Book book = entityManager.find(Book.class, firstBookId);
+        assertThat(book.getCommentCount()).isEqualTo(3);
+        assertThat(book.getRatingCount()).isEqualTo(3);
+        assertThat(book.getRatingSum()).isEqualTo(7L);
+        assertThat(book.getAverageRating()).isCloseTo(14.0 / 3, within(1e-9));
+        assertThat(book.getVersion()).isEqualTo(version + 2);
+    }
+}
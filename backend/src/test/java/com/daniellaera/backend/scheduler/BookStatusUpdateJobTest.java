@@ -1,6 +1,6 @@
 package com.daniellaera.backend.scheduler;
 
-import com.daniellaera.backend.service.BookService;
+import com.daniellaera.backend.service.BorrowService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -15,7 +15,7 @@ import static org.mockito.Mockito.*;
 public class BookStatusUpdateJobTest {
 
     @Mock
-    private BookService bookService;
+    private BorrowService borrowService;
 
     @InjectMocks
     private BookStatusUpdateJob bookStatusUpdateJob;
@@ -27,12 +27,13 @@ public class BookStatusUpdateJobTest {
     void testExecute_UpdatesBookStatus() throws JobExecutionException {
         bookStatusUpdateJob.execute(jobExecutionContext);
 
-        verify(bookService, times(1)).updateExpiredBookStatus();
+        verify(borrowService, times(1)).expireOverdueBorrows();
+        verify(borrowService, times(1)).startDueReservations();
     }
 
     @Test
     void testExecute_ThrowsJobExecutionException_WhenExceptionOccurs() {
-        doThrow(new RuntimeException("Error occurred")).when(bookService).updateExpiredBookStatus();
+        doThrow(new RuntimeException("Error occurred")).when(borrowService).expireOverdueBorrows();
 
         try {
             bookStatusUpdateJob.execute(jobExecutionContext);
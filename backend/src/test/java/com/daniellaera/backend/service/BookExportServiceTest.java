@@ -0,0 +1,53 @@
+package com.daniellaera.backend.service;
+
+import com.daniellaera.backend.dao.BookExportDTO;
+import com.daniellaera.backend.repository.BookRepository;
+import com.daniellaera.backend.service.impl.BookExportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookExportServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private BookExportService bookExportService;
+
+    @BeforeEach
+    public void setUp() {
+        bookExportService = new BookExportServiceImpl(bookRepository, JsonMapper.builder().build());
+    }
+
+    @Test
+    void exportBooks_WritesOneJsonObjectPerLineAndClosesStream() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        BookExportDTO first = new BookExportDTO(1, "Clean Code", "123", null, "Robert C. Martin",
+                "Programming", null, null, null, 4.5, true, 7);
+        BookExportDTO second = new BookExportDTO(2, "Dune", "456", "Spice", "Frank Herbert",
+                "Fiction", null, null, null, null, false, 7);
+        when(bookRepository.streamAllForExport()).thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = bookExportService.exportBooks(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{\"id\":1,").contains("\"title\":\"Clean Code\"");
+        assertThat(lines[1]).contains("\"isAvailable\":false", "\"createdBy\":7");
+        assertThat(closed).isTrue();
+    }
+}
@@ -0,0 +1,61 @@
+package com.daniellaera.backend.service;
+
+import com.daniellaera.backend.dao.BookFacetCount;
+import com.daniellaera.backend.dao.BookFacetsDTO;
+import com.daniellaera.backend.repository.BookRepository;
+import com.daniellaera.backend.service.impl.BookFacetCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookFacetCounterTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private BookFacetCounter bookFacetCounter;
+
+    @BeforeEach
+    public void setUp() {
+        bookFacetCounter = new BookFacetCounter(bookRepository);
+        when(bookRepository.countByGenreAndAvailability()).thenReturn(List.of(
+                new BookFacetCount("Fiction", true, 3L),
+                new BookFacetCount("Fiction", false, 1L),
+                new BookFacetCount("Programming", true, 2L)
+        ));
+        bookFacetCounter.rebuild();
+    }
+
+    @Test
+    void rebuild_ShouldAggregateGroupByRows() {
+        BookFacetsDTO facets = bookFacetCounter.snapshot();
+
+        assertThat(facets.getGenres()).isEqualTo(Map.of("Fiction", 4L, "Programming", 2L));
+        assertThat(facets.getAvailable()).isEqualTo(5L);
+        assertThat(facets.getUnavailable()).isEqualTo(1L);
+    }
+
+    @Test
+    void writes_ShouldAdjustCountersIncrementally() {
+        bookFacetCounter.bookAdded("Technology", true);
+        bookFacetCounter.bookRemoved("Programming", true);
+        bookFacetCounter.bookRemoved("Programming", true);
+        bookFacetCounter.availabilityChanged(false, 2);
+        bookFacetCounter.availabilityChanged(true, 1);
+
+        BookFacetsDTO facets = bookFacetCounter.snapshot();
+
+        assertThat(facets.getGenres()).isEqualTo(Map.of("Fiction", 4L, "Technology", 1L));
+        assertThat(facets.getAvailable()).isEqualTo(3L);
+        assertThat(facets.getUnavailable()).isEqualTo(2L);
+    }
+}
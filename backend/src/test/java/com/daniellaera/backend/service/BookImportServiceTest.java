@@ -0,0 +1,188 @@
+package com.daniellaera.backend.service;
+
+import com.daniellaera.backend.dao.BookImportReport;
+import com.daniellaera.backend.dao.BookSuggestion;
+import com.daniellaera.backend.model.User;
+import com.daniellaera.backend.properties.BookImportProperties;
+import com.daniellaera.backend.repository.UserRepository;
+import com.daniellaera.backend.service.impl.BookFacetCounter;
+import com.daniellaera.backend.service.impl.BookImportServiceImpl;
+import com.daniellaera.backend.service.impl.BookSuggestionIndex;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class BookImportServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private BookSuggestionIndex bookSuggestionIndex;
+    @Mock
+    private BookFacetCounter bookFacetCounter;
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+    @Mock
+    private Cache cache;
+    @Mock
+    private org.hibernate.Cache hibernateCache;
+
+    private BookImportService bookImportService;
+
+    @BeforeEach
+    public void setUp() {
+        BookImportProperties properties = new BookImportProperties();
+        properties.setBatchSize(2);
+        bookImportService = new BookImportServiceImpl(jdbcTemplate, transactionTemplate, userRepository,
+                bookSuggestionIndex, bookFacetCounter, entityManagerFactory,
+                JsonMapper.builder().build(), properties);
+
+        User user = new User();
+        user.setId(7);
+        user.setEmail("librarian@example.com");
+        when(userRepository.findByEmail("librarian@example.com")).thenReturn(Optional.of(user));
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        when(cache.unwrap(org.hibernate.Cache.class)).thenReturn(hibernateCache);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void importBooks_ShouldBatchInsertValidRowsAndReportTheRest() throws Exception {
+        // 978-0132350884 is already in the catalog under another spelling: ON CONFLICT skips it
+        int[] nextId = {100};
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class), any(KeyHolder.class)))
+                .thenAnswer(invocation -> {
+                    BatchPreparedStatementSetter setter = invocation.getArgument(1);
+                    KeyHolder keyHolder = invocation.getArgument(2);
+                    int[] counts = new int[setter.getBatchSize()];
+                    for (int i = 0; i < setter.getBatchSize(); i++) {
+                        PreparedStatement ps = mock(PreparedStatement.class);
+                        setter.setValues(ps, i);
+                        ArgumentCaptor<String> isbn13 = ArgumentCaptor.forClass(String.class);
+                        verify(ps).setString(eq(3), isbn13.capture());
+                        if (!isbn13.getValue().equals("9780132350884")) {
+                            keyHolder.getKeyList().add(Map.of("id", nextId[0]++, "isbn13", isbn13.getValue()));
+                            counts[i] = 1;
+                        }
+                    }
+                    return counts;
+                });
+
+        String csv = """
+                title,isbn,author,genre,published_date,description
+                Dune,978-0441013593,Frank Herbert,Fiction,1965-08-01,"Spice, sand and worms"
+                Refactoring,0-201-48567-2,Martin Fowler,Programming,1999-07-08,
+                Clean Code,978 0132350884,Robert C. Martin,Programming,2008-08-01,
+                ,978-0000000001,Nobody,Fiction,2000-01-01,
+                Neuromancer,978-0441569595,William Gibson,Fiction,01/07/1984,
+                Neuromancer,978-0441569595,William Gibson,Fiction,1984-07-01,
+                Dune again,9780441013593,Frank Herbert,Fiction,1965-08-01,
+                Scanner glitch,12345,Nobody,Fiction,2000-01-01,
+                """;
+
+        BookImportReport report = bookImportService.importBooks(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), BookImportService.TEXT_CSV, "librarian@example.com");
+
+        assertThat(report.getReceived()).isEqualTo(8);
+        assertThat(report.getImported()).isEqualTo(3);
+        assertThat(report.getDuplicates()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(3);
+        assertThat(report.getErrors())
+                .extracting(error -> error.getLine() + ": " + error.getMessage())
+                .containsExactlyInAnyOrder(
+                        "4: ISBN already in the catalog",
+                        "5: Title is required",
+                        "6: Published date must be formatted as yyyy-MM-dd",
+                        "8: Duplicate ISBN within the import",
+                        "9: ISBN must be a valid ISBN-10 or ISBN-13");
+
+        verify(bookSuggestionIndex).add(new BookSuggestion(100, "Dune", "Frank Herbert"));
+        verify(bookFacetCounter, times(2)).bookAdded("Fiction", true);
+        verify(bookFacetCounter).bookAdded("Programming", true);
+        verify(hibernateCache).evictCollectionData(User.class.getName() + ".books", 7);
+    }
+
+    @Test
+    void importBooks_ShouldNotEchoDatabaseErrorsOfAFailedBatch() throws Exception {
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class), any(KeyHolder.class)))
+                .thenThrow(new DataIntegrityViolationException("ERROR: value too long for type character varying(255)"));
+
+        String csv = """
+                title,isbn,author,genre,published_date
+                Dune,978-0441013593,Frank Herbert,Fiction,1965-08-01
+                """;
+
+        BookImportReport report = bookImportService.importBooks(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), BookImportService.TEXT_CSV, "librarian@example.com");
+
+        assertThat(report.getImported()).isZero();
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting("message")
+                .containsExactly("Batch insert failed, no row of this batch was imported");
+        verifyNoInteractions(bookSuggestionIndex, bookFacetCounter);
+    }
+
+    @Test
+    void importBooks_ShouldReportMalformedNdjsonLines() throws Exception {
+        String ndjson = """
+                {"title":"Dune","isbn":"978-0441013593","author":"Frank Herbert","genre":"Fiction"}
+                {"title": broken
+                null
+                """;
+
+        BookImportReport report = bookImportService.importBooks(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), MediaType.APPLICATION_NDJSON, "librarian@example.com");
+
+        assertThat(report.getReceived()).isEqualTo(3);
+        assertThat(report.getImported()).isZero();
+        assertThat(report.getErrors()).extracting("line").containsExactly(1, 2, 3);
+        assertThat(report.getErrors().getFirst().getMessage()).isEqualTo("Published date is required");
+        assertThat(report.getErrors().getLast().getMessage()).isEqualTo("Expected a JSON object");
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void importBooks_ShouldRejectCsvWithoutRequiredColumns() {
+        String csv = "title,author\nDune,Frank Herbert\n";
+
+        assertThatThrownBy(() -> bookImportService.importBooks(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), BookImportService.TEXT_CSV, "librarian@example.com"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("isbn");
+    }
+}
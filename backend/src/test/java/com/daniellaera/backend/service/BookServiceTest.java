@@ -1,29 +1,47 @@
 package com.daniellaera.backend.service;
 
 import com.daniellaera.backend.dao.BookDTO;
+import com.daniellaera.backend.dao.BookExpansion;
+import com.daniellaera.backend.dao.BookSuggestion;
+import com.daniellaera.backend.dao.BookSummary;
+import com.daniellaera.backend.dao.CursorPage;
+import com.daniellaera.backend.exception.DuplicateIsbnException;
 import com.daniellaera.backend.model.Book;
+import com.daniellaera.backend.model.Comment;
 import com.daniellaera.backend.model.User;
+import com.daniellaera.backend.properties.BookSimilarityProperties;
+import com.daniellaera.backend.properties.BookTrendingProperties;
 import com.daniellaera.backend.repository.BookRepository;
 import com.daniellaera.backend.repository.UserRepository;
+import com.daniellaera.backend.service.impl.BookFacetCounter;
 import com.daniellaera.backend.service.impl.BookServiceImpl;
-import com.daniellaera.backend.service.impl.BorrowRepository;
+import com.daniellaera.backend.service.impl.BookSimilarityIndex;
+import com.daniellaera.backend.service.impl.BookSuggestionIndex;
+import com.daniellaera.backend.service.impl.BookTrendingTracker;
+import com.daniellaera.backend.utils.CursorCodec;
 import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.sql.SQLException;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,12 +60,24 @@ public class BookServiceTest {
     private BookRepository bookRepository;
 
     @Mock
-    private BorrowRepository borrowRepository;
+    private BookSuggestionIndex bookSuggestionIndex;
+
+    @Mock
+    private BookFacetCounter bookFacetCounter;
+
+    @Mock
+    private BookSimilarityIndex bookSimilarityIndex;
+
+    private final BookSimilarityProperties bookSimilarityProperties = new BookSimilarityProperties();
+
+    @Mock
+    private BookTrendingTracker bookTrendingTracker;
 
     @BeforeEach
     public void setUp() {
         // to remove in case we @InjectMocks of bookServiceImpl
-        bookService = new BookServiceImpl(bookRepository, userRepository, borrowRepository);
+        bookService = new BookServiceImpl(bookRepository, userRepository, bookSuggestionIndex, bookFacetCounter,
+                bookSimilarityIndex, bookSimilarityProperties, bookTrendingTracker, new BookTrendingProperties());
     }
 
     @Test
@@ -76,6 +106,74 @@ public class BookServiceTest {
         verify(bookRepository, times(1)).findAll(any(PageRequest.class));
     }
 
+    @Test
+    void getAllBooks_ShouldAddIdTiebreakerToWhitelistedSort() {
+        when(bookRepository.findAll(any(PageRequest.class))).thenReturn(Page.empty());
+
+        bookService.getAllBooks(PageRequest.of(2, 10, Sort.by(Sort.Direction.DESC, "averageRating")));
+
+        ArgumentCaptor<PageRequest> pageCaptor = ArgumentCaptor.forClass(PageRequest.class);
+        verify(bookRepository).findAll(pageCaptor.capture());
+        assertThat(pageCaptor.getValue().getPageNumber()).isEqualTo(2);
+        assertThat(pageCaptor.getValue().getSort())
+                .isEqualTo(Sort.by(Sort.Direction.DESC, "averageRating").and(Sort.by(Sort.Direction.DESC, "id")));
+    }
+
+    @Test
+    void getAllBooks_ShouldRejectUnsupportedSorts() {
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class,
+                () -> bookService.getAllBooks(PageRequest.of(0, 10, Sort.by("description"))));
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class,
+                () -> bookService.getAllBooks(PageRequest.of(0, 10, Sort.by("author", "title"))));
+        verify(bookRepository, never()).findAll(any(PageRequest.class));
+    }
+
+    @Test
+    void getBookSummaries_ShouldReturnProjectionWithoutLoadingEntities() {
+        BookSummary summary = new BookSummary(1, "Test Book", "Test Author", "Fiction", 4.5, true, 2, 3, "John Doe");
+        when(bookRepository.findAllSummaries(any(PageRequest.class))).thenReturn(new PageImpl<>(List.of(summary)));
+
+        Page<BookSummary> result = bookService.getBookSummaries(PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).containsExactly(summary);
+        verify(bookRepository, never()).findAll(any(PageRequest.class));
+    }
+
+    @Test
+    void scrollBookSummaries_ShouldSeekFromCursorAndSkipCount() {
+        BookSummary first = new BookSummary(3, "Clean Code", "Robert C. Martin", "Programming", 4.0, true, 2, 3, "Bob Thompson");
+        BookSummary second = new BookSummary(7, "Effective Java", "Joshua Bloch", "Programming", 4.5, true, 2, 3, "John Doe");
+        when(bookRepository.findSummariesAfterTitle(eq("1984"), eq(6), any(PageRequest.class)))
+                .thenReturn(List.of(first, second));
+
+        CursorPage<BookSummary> result = bookService.scrollBookSummaries(CursorCodec.encode("1984", 6), 1);
+
+        assertThat(result.getContent()).containsExactly(first);
+        assertThat(result.isHasNext()).isTrue();
+        assertThat(CursorCodec.decode(result.getNextCursor())).isEqualTo(new CursorCodec.Cursor("Clean Code", 3));
+        verify(bookRepository, never()).findAllSummaries(any());
+    }
+
+    @Test
+    void searchBooks_ShouldIgnoreClientSortAndRankByRelevance() {
+        BookSummary summary = new BookSummary(2, "Clean Code", "Robert C. Martin", "Programming", 4.0, true, 2, 3, "Bob Thompson");
+        when(bookRepository.searchSummaries(eq("clean code"), any(PageRequest.class))).thenReturn(new PageImpl<>(List.of(summary)));
+
+        Page<BookSummary> result = bookService.searchBooks(" clean code ", PageRequest.of(0, 10, Sort.by("title")));
+
+        assertThat(result.getContent()).containsExactly(summary);
+        verify(bookRepository).searchSummaries("clean code", PageRequest.of(0, 10));
+    }
+
+    @Test
+    void searchBooks_ShouldRejectBlankQuery() {
+        org.junit.jupiter.api.Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> bookService.searchBooks("  ", PageRequest.of(0, 10))
+        );
+        verifyNoInteractions(bookRepository);
+    }
+
     @Test
     void findBookById_ShouldReturnBookIfExists() {
         User user = new User();
@@ -89,7 +187,7 @@ public class BookServiceTest {
         book.setId(1);
         book.setTitle("Test Book");
         book.setCreatedBy(user); // Set createdBy user
-        when(bookRepository.findById(1)).thenReturn(Optional.of(book));
+        when(bookRepository.findDetailedById(1)).thenReturn(Optional.of(book));
 
         // Act
         Optional<BookDTO> result = bookService.findBookById(1);
@@ -97,20 +195,42 @@ public class BookServiceTest {
         // Assert
         assertThat(result).isPresent();
         assertThat(result.get().getTitle()).isEqualTo("Test Book");
-        verify(bookRepository, times(1)).findById(1);
+        verify(bookRepository, times(1)).findDetailedById(1);
+    }
+
+    @Test
+    void findBookById_ShouldSkipUnrequestedAssociations() {
+        User user = new User();
+        user.setId(1);
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        Book book = new Book();
+        book.setId(1);
+        book.setTitle("Test Book");
+        book.setCreatedBy(user);
+        book.setComments(List.of(new Comment()));
+        when(bookRepository.findWithCreatorById(1)).thenReturn(Optional.of(book));
+
+        Optional<BookDTO> result = bookService.findBookById(1, EnumSet.of(BookExpansion.RATINGS));
+
+        assertThat(result).isPresent();
+        assertThat(result.get().getRatings()).isEmpty();
+        assertThat(result.get().getComments()).isNull();
+        assertThat(result.get().getBorrow()).isNull();
+        verify(bookRepository, never()).findDetailedById(any());
     }
 
     @Test
     void findBookById_ShouldReturnEmptyIfNotFound() {
         // Arrange
-        when(bookRepository.findById(1)).thenReturn(Optional.empty());
+        when(bookRepository.findDetailedById(1)).thenReturn(Optional.empty());
 
         // Act
         Optional<BookDTO> result = bookService.findBookById(1);
 
         // Assert
         assertThat(result).isEmpty();
-        verify(bookRepository, times(1)).findById(1);
+        verify(bookRepository, times(1)).findDetailedById(1);
     }
 
     @Test
@@ -144,6 +264,33 @@ public class BookServiceTest {
         Book capturedBook = bookCaptor.getValue();
         assertThat(capturedBook.getTitle()).isEqualTo("Test Book");
         assertThat(capturedBook.getCreatedBy().getEmail()).isEqualTo("test@example.com");
+        verify(bookSuggestionIndex).add(new BookSuggestion(1, "Test Book", null));
+        verify(bookFacetCounter).bookAdded(null, true);
+    }
+
+    @Test
+    void createBook_ShouldRejectDuplicateIsbn() {
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setTitle("Clean Code");
+        bookDTO.setIsbn("0-13-235088-2");
+
+        User user = new User();
+        user.setEmail("test@example.com");
+
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        when(bookRepository.save(any(Book.class))).thenThrow(new DataIntegrityViolationException("insert failed",
+                new ConstraintViolationException("duplicate key", new SQLException(), "uk_book_isbn13")));
+
+        DuplicateIsbnException exception = org.junit.jupiter.api.Assertions.assertThrows(
+                DuplicateIsbnException.class,
+                () -> bookService.createBook(bookDTO, "test@example.com")
+        );
+
+        assertThat(exception.getMessage()).isEqualTo("A book with ISBN 0-13-235088-2 already exists");
+        ArgumentCaptor<Book> bookCaptor = ArgumentCaptor.forClass(Book.class);
+        verify(bookRepository).save(bookCaptor.capture());
+        assertThat(bookCaptor.getValue().getIsbn13()).isEqualTo("9780132350884");
+        verifyNoInteractions(bookSuggestionIndex, bookFacetCounter);
     }
 
     @Test
@@ -178,6 +325,9 @@ public class BookServiceTest {
         bookService.deleteBook(bookId);
 
         verify(bookRepository, times(1)).delete(book);
+        verify(bookSuggestionIndex).remove(bookId);
+        verify(bookFacetCounter).bookRemoved(null, true);
+        verify(bookTrendingTracker).remove(bookId);
     }
 
     @Test
@@ -194,4 +344,46 @@ public class BookServiceTest {
         assertThat(exception.getMessage()).isEqualTo("Book not found with id: " + bookId);
         verify(bookRepository, never()).delete(any(Book.class));
     }
+
+    @Test
+    void findSimilarBooks_ShouldKeepMatrixOrderAndSkipDeletedBooks() {
+        when(bookSimilarityIndex.similarTo(1, 3)).thenReturn(new int[]{7, 5, 9});
+        when(bookRepository.findSummariesByIdIn(List.of(7, 5, 9))).thenReturn(List.of(
+                new BookSummary(5, "Clean Code", "Robert C. Martin", "Programming", 4.0, true, 0, 2, "John Doe"),
+                new BookSummary(7, "Effective Java", "Joshua Bloch", "Programming", 4.5, true, 0, 2, "John Doe")
+        ));
+
+        Optional<List<BookSummary>> similar = bookService.findSimilarBooks(1, 3);
+
+        assertThat(similar).isPresent();
+        assertThat(similar.get()).extracting(BookSummary::getId).containsExactly(7, 5);
+    }
+
+    @Test
+    void findSimilarBooks_ShouldClampLimitToStoredNeighbours() {
+        when(bookSimilarityIndex.similarTo(1, bookSimilarityProperties.getNeighbours())).thenReturn(new int[0]);
+        when(bookRepository.existsById(1)).thenReturn(true);
+
+        assertThat(bookService.findSimilarBooks(1, 1000)).contains(List.of());
+    }
+
+    @Test
+    void findSimilarBooks_ShouldBeEmptyForUnknownBook() {
+        when(bookSimilarityIndex.similarTo(99, 10)).thenReturn(new int[0]);
+        when(bookRepository.existsById(99)).thenReturn(false);
+
+        assertThat(bookService.findSimilarBooks(99, 10)).isEmpty();
+        verify(bookRepository, never()).findSummariesByIdIn(any());
+    }
+
+    @Test
+    void getTrendingBooks_ShouldKeepLeaderboardOrder() {
+        when(bookTrendingTracker.trending(2)).thenReturn(List.of(3, 1));
+        when(bookRepository.findSummariesByIdIn(List.of(3, 1))).thenReturn(List.of(
+                new BookSummary(1, "Clean Code", "Robert C. Martin", "Programming", 4.0, true, 0, 2, "John Doe"),
+                new BookSummary(3, "Effective Java", "Joshua Bloch", "Programming", 4.5, false, 1, 2, "John Doe")
+        ));
+
+        assertThat(bookService.getTrendingBooks(2)).extracting(BookSummary::getId).containsExactly(3, 1);
+    }
 }
@@ -0,0 +1,100 @@
+package com.daniellaera.backend.service;
+
+import com.daniellaera.backend.service.impl.BookSimilarityMatrix;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class BookSimilarityMatrixTest {
+
+    private static final int[] BOOK_IDS = {10, 20, 30, 40};
+
+    @Test
+    void build_ShouldRankNeighboursByCosineSimilarity() {
+        BookSimilarityMatrix.Builder builder = new BookSimilarityMatrix.Builder(BOOK_IDS, 0, 100, 100);
+        // users 1 and 2 rate 10 and 20 alike, 30 is only loosely related to 10
+        builder.add(1, 10, 5);
+        builder.add(1, 20, 5);
+        builder.add(1, 30, 1);
+        builder.add(2, 10, 4);
+        builder.add(2, 20, 4);
+        builder.add(2, 30, 1);
+        builder.add(3, 30, 5);
+        builder.add(3, 40, 5);
+
+        BookSimilarityMatrix matrix = builder.build(10, 1);
+
+        assertThat(matrix.neighboursOf(10, 10)).containsExactly(20, 30);
+        assertThat(matrix.similaritiesOf(10, 1)[0]).isCloseTo(1.0f, within(1e-6f));
+        assertThat(matrix.neighboursOf(40, 10)).containsExactly(30);
+        assertThat(matrix.neighboursOf(10, 1)).containsExactly(20);
+    }
+
+    @Test
+    void build_ShouldKeepOnlyTopKPerBook() {
+        BookSimilarityMatrix.Builder builder = new BookSimilarityMatrix.Builder(BOOK_IDS, 0, 100, 100);
+        builder.add(1, 10, 5);
+        builder.add(1, 20, 5);
+        builder.add(1, 30, 2);
+        builder.add(1, 40, 1);
+
+        BookSimilarityMatrix matrix = builder.build(2, 1);
+
+        assertThat(matrix.neighboursOf(10, 10)).hasSize(2);
+        assertThat(matrix.neighbourCount()).isEqualTo(8);
+    }
+
+    @Test
+    void build_ShouldRequireMinimumCoRatings() {
+        BookSimilarityMatrix.Builder builder = new BookSimilarityMatrix.Builder(BOOK_IDS, 0, 100, 100);
+        builder.add(1, 10, 5);
+        builder.add(1, 20, 5);
+        builder.add(2, 10, 5);
+        builder.add(2, 20, 4);
+        builder.add(2, 30, 5);
+
+        BookSimilarityMatrix matrix = builder.build(10, 2);
+
+        assertThat(matrix.neighboursOf(10, 10)).containsExactly(20);
+        assertThat(matrix.neighboursOf(30, 10)).isEmpty();
+    }
+
+    @Test
+    void add_ShouldKeepLatestRatingAndSkipUnknownBooksAndHeavyRaters() {
+        BookSimilarityMatrix.Builder builder = new BookSimilarityMatrix.Builder(BOOK_IDS, 0, 2, 100);
+        builder.add(1, 10, 1);
+        builder.add(1, 10, 5);  // re-rated, overrides the first score
+        builder.add(1, 20, 5);
+        builder.add(1, 99, 5);  // not in the catalog
+        builder.add(2, 10, 5);  // three ratings, above the limit of two
+        builder.add(2, 30, 5);
+        builder.add(2, 40, 5);
+
+        BookSimilarityMatrix matrix = builder.build(10, 1);
+
+        assertThat(matrix.neighboursOf(10, 10)).containsExactly(20);
+        assertThat(matrix.similaritiesOf(10, 10)[0]).isCloseTo(1.0f, within(1e-6f));
+        assertThat(matrix.neighboursOf(30, 10)).isEmpty();
+        assertThat(matrix.neighboursOf(99, 10)).isEmpty();
+    }
+
+    @Test
+    void add_ShouldKeepAtMostMaxRatersPerBook() {
+        BookSimilarityMatrix.Builder builder = new BookSimilarityMatrix.Builder(BOOK_IDS, 0, 2, 2);
+        builder.add(1, 10, 5);  // heavy rater, left out along with the raters it took
+        builder.add(1, 20, 5);
+        builder.add(1, 30, 5);
+        builder.add(2, 10, 5);
+        builder.add(2, 20, 5);
+        builder.add(3, 10, 4);
+        builder.add(3, 20, 4);
+        builder.add(4, 10, 5);  // 10 already has two raters, only the rating of 30 is kept
+        builder.add(4, 30, 5);
+
+        BookSimilarityMatrix matrix = builder.build(10, 2);
+
+        assertThat(matrix.neighboursOf(10, 10)).containsExactly(20);
+        assertThat(matrix.neighboursOf(30, 10)).isEmpty();
+    }
+}
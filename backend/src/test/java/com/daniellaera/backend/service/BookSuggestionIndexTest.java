@@ -0,0 +1,89 @@
+package com.daniellaera.backend.service;
+
+import com.daniellaera.backend.dao.BookSuggestion;
+import com.daniellaera.backend.repository.BookRepository;
+import com.daniellaera.backend.service.impl.BookSuggestionIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookSuggestionIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private BookSuggestionIndex bookSuggestionIndex;
+
+    @BeforeEach
+    public void setUp() {
+        bookSuggestionIndex = new BookSuggestionIndex(bookRepository);
+        when(bookRepository.findAllSuggestions()).thenReturn(List.of(
+                new BookSuggestion(1, "Effective Java", "Joshua Bloch"),
+                new BookSuggestion(2, "Clean Code", "Robert C. Martin"),
+                new BookSuggestion(3, "The Alchemist", "Paulo Coelho"),
+                new BookSuggestion(4, "Cien años de soledad", "Gabriel García Márquez")
+        ));
+        bookSuggestionIndex.rebuild();
+    }
+
+    @Test
+    void suggest_ShouldMatchTitleAndAuthorPrefixes() {
+        assertThat(bookSuggestionIndex.suggest("eff", 10)).extracting(BookSuggestion::getId).containsExactly(1);
+        assertThat(bookSuggestionIndex.suggest("Bloc", 10)).extracting(BookSuggestion::getId).containsExactly(1);
+        assertThat(bookSuggestionIndex.suggest("c", 10)).extracting(BookSuggestion::getId).containsExactly(4, 2, 3);
+    }
+
+    @Test
+    void suggest_ShouldRequireEveryQueryToken() {
+        assertThat(bookSuggestionIndex.suggest("clean rob", 10)).extracting(BookSuggestion::getId).containsExactly(2);
+        assertThat(bookSuggestionIndex.suggest("clean java", 10)).isEmpty();
+    }
+
+    @Test
+    void suggest_ShouldIgnoreCaseAndAccents() {
+        assertThat(bookSuggestionIndex.suggest("GARCIA", 10)).extracting(BookSuggestion::getId).containsExactly(4);
+        assertThat(bookSuggestionIndex.suggest("anos", 10)).extracting(BookSuggestion::getId).containsExactly(4);
+    }
+
+    @Test
+    void suggest_ShouldFindMatchesBeyondTheFirstThousandCandidates() {
+        // "programming" sorts before "progressive", so the 1100 non-matching books are scanned first
+        for (int id = 100; id < 1200; id++) {
+            bookSuggestionIndex.add(new BookSuggestion(id, "Programming Basics " + id, "Ann Author"));
+        }
+        bookSuggestionIndex.add(new BookSuggestion(5, "Progressive Rust", "Jon Gjengset"));
+
+        assertThat(bookSuggestionIndex.suggest("prog rust", 10)).extracting(BookSuggestion::getId).containsExactly(5);
+        assertThat(bookSuggestionIndex.suggest("prog", 5)).hasSize(5);
+    }
+
+    @Test
+    void suggest_ShouldRankEveryMatchNotOnlyTheFirstScanned() {
+        // "programmer" sorts before "progressive", so the 1100 authors' tokens are scanned first
+        for (int id = 100; id < 1200; id++) {
+            bookSuggestionIndex.add(new BookSuggestion(id, "Basics " + id, "Programmer Pat"));
+        }
+        bookSuggestionIndex.add(new BookSuggestion(5, "Progressive Rust", "Jon Gjengset"));
+
+        // the only title starting with the query ranks first
+        assertThat(bookSuggestionIndex.suggest("prog", 3)).extracting(BookSuggestion::getId).containsExactly(5, 100, 1000);
+    }
+
+    @Test
+    void addAndRemove_ShouldKeepIndexCurrent() {
+        bookSuggestionIndex.add(new BookSuggestion(5, "Java Concurrency in Practice", "Brian Goetz"));
+        assertThat(bookSuggestionIndex.suggest("jav", 10)).extracting(BookSuggestion::getId).containsExactly(5, 1);
+
+        bookSuggestionIndex.remove(1);
+        assertThat(bookSuggestionIndex.suggest("jav", 10)).extracting(BookSuggestion::getId).containsExactly(5);
+        assertThat(bookSuggestionIndex.suggest("bloch", 10)).isEmpty();
+    }
+}
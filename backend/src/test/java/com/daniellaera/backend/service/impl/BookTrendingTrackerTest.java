@@ -0,0 +1,102 @@
+package com.daniellaera.backend.service.impl;
+
+import com.daniellaera.backend.properties.BookTrendingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class BookTrendingTrackerTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private BookTrendingTracker tracker;
+
+    @BeforeEach
+    public void setUp() {
+        BookTrendingProperties properties = new BookTrendingProperties();
+        properties.setHalfLife(Duration.ofHours(1));
+        properties.setSize(2);
+        tracker = new BookTrendingTracker(jdbcTemplate, transactionTemplate, properties, now::get);
+    }
+
+    @Test
+    void record_ShouldRankByWeightedActivity() {
+        tracker.record(1, BookTrendingTracker.Signal.COMMENT);
+        tracker.record(2, BookTrendingTracker.Signal.BORROW);
+        tracker.record(3, BookTrendingTracker.Signal.RATING);
+
+        assertThat(tracker.trending(10)).containsExactly(2, 3);
+        assertThat(tracker.trending(1)).containsExactly(2);
+    }
+
+    @Test
+    void record_ShouldLetRecentActivityOvertakeOlderActivity() {
+        tracker.record(1, BookTrendingTracker.Signal.BORROW);
+        // two half-lives later the borrow is worth 0.75, less than a fresh comment
+        now.addAndGet(2 * HOUR);
+        tracker.record(2, BookTrendingTracker.Signal.COMMENT);
+
+        assertThat(tracker.trending(10)).containsExactly(2, 1);
+    }
+
+    @Test
+    void remove_ShouldDropBookFromLeaderboard() {
+        tracker.record(1, BookTrendingTracker.Signal.BORROW);
+        tracker.record(2, BookTrendingTracker.Signal.COMMENT);
+        tracker.record(3, BookTrendingTracker.Signal.COMMENT);
+
+        tracker.remove(1);
+
+        assertThat(tracker.trending(10)).hasSize(2).doesNotContain(1);
+    }
+
+    @Test
+    void snapshot_ShouldKeepOrderAcrossRebaseAndForgetDecayedScores() {
+        tracker.restore();
+        tracker.record(1, BookTrendingTracker.Signal.COMMENT);
+        now.addAndGet(10 * HOUR);
+        tracker.record(2, BookTrendingTracker.Signal.COMMENT);
+        tracker.record(3, BookTrendingTracker.Signal.COMMENT);
+        tracker.record(3, BookTrendingTracker.Signal.COMMENT);
+
+        // the first comment has decayed to about 0.001, under the default minimum
+        tracker.snapshot();
+        tracker.record(2, BookTrendingTracker.Signal.COMMENT);
+        tracker.record(2, BookTrendingTracker.Signal.COMMENT);
+
+        assertThat(tracker.trending(10)).isEqualTo(List.of(2, 3));
+    }
+
+    @Test
+    void snapshot_ShouldWaitForRestore() {
+        tracker.record(1, BookTrendingTracker.Signal.COMMENT);
+
+        tracker.snapshot();
+
+        verify(transactionTemplate, never()).executeWithoutResult(any());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+}
@@ -0,0 +1,38 @@
+package com.daniellaera.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvReaderTest {
+
+    @Test
+    void testReadsQuotedFieldsAcrossLines() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(
+                "title,description\r\n" +
+                "\"Clean Code\",\"A handbook, of \"\"agile\"\"\nsoftware\"\r\n" +
+                "Dune,\n"));
+
+        assertEquals(List.of("title", "description"), reader.readRecord());
+        assertEquals(1, reader.getRecordLineNumber());
+
+        assertEquals(List.of("Clean Code", "A handbook, of \"agile\"\nsoftware"), reader.readRecord());
+        assertEquals(2, reader.getRecordLineNumber());
+
+        assertEquals(List.of("Dune", ""), reader.readRecord());
+        assertEquals(4, reader.getRecordLineNumber());
+
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void testRejectsUnterminatedQuote() {
+        CsvReader reader = new CsvReader(new StringReader("\"Clean Code,Robert C. Martin\n"));
+
+        assertThrows(IOException.class, reader::readRecord);
+    }
+}
@@ -0,0 +1,24 @@
+package com.daniellaera.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CursorCodecTest {
+
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        String cursor = CursorCodec.encode("Clean Code | 2nd edition", 42);
+
+        CursorCodec.Cursor decoded = CursorCodec.decode(cursor);
+
+        assertEquals("Clean Code | 2nd edition", decoded.key());
+        assertEquals(42, decoded.id());
+        assertFalse(cursor.contains("|"), "Cursor should be opaque");
+    }
+
+    @Test
+    void testDecodeRejectsGarbage() {
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode("not-a-cursor"));
+    }
+}
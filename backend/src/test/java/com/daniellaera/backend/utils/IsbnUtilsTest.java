@@ -0,0 +1,24 @@
+package com.daniellaera.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IsbnUtilsTest {
+
+    @Test
+    void testScannerFormatsNormalizeToSameIsbn13() {
+        assertEquals("9780132350884", IsbnUtils.toIsbn13("978-0132350884"));
+        assertEquals("9780132350884", IsbnUtils.toIsbn13("978 0 13 235088 4"));
+        assertEquals("9780132350884", IsbnUtils.toIsbn13("0132350884"));
+        assertEquals("9780132350884", IsbnUtils.toIsbn13("0-13-235088-2"));
+        assertEquals("9780805010640", IsbnUtils.toIsbn13("080501064x"));
+    }
+
+    @Test
+    void testRejectsMalformedIsbns() {
+        assertThrows(IllegalArgumentException.class, () -> IsbnUtils.toIsbn13("12345"));
+        assertThrows(IllegalArgumentException.class, () -> IsbnUtils.toIsbn13("1234567890123"));
+        assertThrows(IllegalArgumentException.class, () -> IsbnUtils.toIsbn13("978-01323508X4"));
+    }
+}